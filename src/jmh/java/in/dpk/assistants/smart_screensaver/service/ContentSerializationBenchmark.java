@@ -0,0 +1,51 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import in.dpk.assistants.smart_screensaver.quote.QuoteCorpus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a full content payload, as written by /api/screensaver/content.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContentSerializationBenchmark {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private Map<String, Object> content;
+    
+    @Setup
+    public void setUp() throws IOException {
+        Path table = Files.createTempFile("quote-corpus", ".bin");
+        table.toFile().deleteOnExit();
+        ScreensaverService screensaverService = StubServices.screensaverService(StubServices.routines(20, 7),
+                new QuoteCorpus("", table.toString()), new ScreensaverMetrics(new SimpleMeterRegistry()));
+        content = screensaverService.getScreensaverContent(null);
+        // Every widget, whichever routines happened to match
+        content.put("weather", StubServices.WEATHER);
+        content.put("traffic", StubServices.TRAFFIC);
+        content.put("location", StubServices.LOCATION);
+    }
+    
+    @Benchmark
+    public byte[] writeContent() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(content);
+    }
+}
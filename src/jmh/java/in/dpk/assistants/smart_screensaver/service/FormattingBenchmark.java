@@ -0,0 +1,51 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import in.dpk.assistants.smart_screensaver.weather.TemperatureFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time, date, greeting and temperature formatting done for every content request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FormattingBenchmark {
+    
+    private final TimeService timeService = new TimeService();
+    private final GreetingService greetingService = new GreetingService();
+    private LocalDateTime now = StubServices.NOW;
+    private double temperature = 18.46;
+    
+    @Benchmark
+    public String formatTime() {
+        return timeService.formatTime(now);
+    }
+    
+    @Benchmark
+    public String formatDate() {
+        return timeService.formatDate(now);
+    }
+    
+    @Benchmark
+    public String formatTimestamp() {
+        return timeService.formatTimestamp(now);
+    }
+    
+    @Benchmark
+    public String greeting() {
+        return greetingService.getGreeting(now);
+    }
+    
+    @Benchmark
+    public String temperature() {
+        return TemperatureFormatter.format(temperature);
+    }
+}
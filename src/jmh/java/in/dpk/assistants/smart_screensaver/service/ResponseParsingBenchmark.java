@@ -0,0 +1,111 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.dpk.assistants.smart_screensaver.weather.HourlyForecast;
+import in.dpk.assistants.smart_screensaver.weather.TemperatureFormatter;
+import in.dpk.assistants.smart_screensaver.weather.WeatherCodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of each upstream response shape, from the raw body to the widget payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseParsingBenchmark {
+    
+    private static final String QUOTABLE = "{\"_id\":\"8xjFg1aZ\",\"content\":\"Simplicity is prerequisite for reliability.\","
+            + "\"author\":\"Edsger W. Dijkstra\",\"tags\":[\"Technology\",\"Wisdom\"],\"authorSlug\":\"edsger-w-dijkstra\","
+            + "\"length\":43,\"dateAdded\":\"2023-04-14\",\"dateModified\":\"2023-04-14\"}";
+    private static final String ZENQUOTES = "[{\"q\":\"Well begun is half done.\",\"a\":\"Aristotle\",\"c\":\"25\","
+            + "\"h\":\"<blockquote>&ldquo;Well begun is half done.&rdquo; &mdash; <footer>Aristotle</footer></blockquote>\"}]";
+    private static final String GOPROGRAM = "{\"quote\":\"First, solve the problem. Then, write the code.\",\"author\":\"John Johnson\"}";
+    private static final String IP_LOCATION = "{\"ip\":\"203.0.113.7\",\"network\":\"203.0.113.0/24\",\"version\":\"IPv4\","
+            + "\"city\":\"Bengaluru\",\"region\":\"Karnataka\",\"region_code\":\"KA\",\"country\":\"IN\",\"country_name\":\"India\","
+            + "\"country_code\":\"IN\",\"country_code_iso3\":\"IND\",\"country_capital\":\"New Delhi\",\"country_tld\":\".in\","
+            + "\"continent_code\":\"AS\",\"in_eu\":false,\"postal\":\"560002\",\"latitude\":12.9634,\"longitude\":77.5855,"
+            + "\"timezone\":\"Asia/Kolkata\",\"utc_offset\":\"+0530\",\"country_calling_code\":\"+91\",\"currency\":\"INR\","
+            + "\"currency_name\":\"Rupee\",\"languages\":\"en-IN,hi,bn,te,mr,ta\",\"asn\":\"AS64500\",\"org\":\"Example ISP\"}";
+    private static final String GEOCODING = "{\"results\":[{\"id\":1277333,\"name\":\"Bengaluru\",\"latitude\":12.97194,"
+            + "\"longitude\":77.59369,\"elevation\":920.0,\"feature_code\":\"PPLA\",\"country_code\":\"IN\",\"admin1_id\":1267701,"
+            + "\"timezone\":\"Asia/Kolkata\",\"population\":8443675,\"country_id\":1269750,\"country\":\"India\","
+            + "\"admin1\":\"Karnataka\"}],\"generationtime_ms\":0.71}";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String weather;
+    private HourlyForecast forecast;
+    private long now;
+    
+    @Setup
+    public void setUp() throws IOException {
+        // 49 hourly samples, the shape WeatherBatchClient requests
+        now = StubServices.NOW.toEpochSecond(ZoneOffset.UTC);
+        int hours = 49;
+        float[] temperature = new float[hours];
+        short[] humidity = new short[hours];
+        short[] weatherCode = new short[hours];
+        for (int i = 0; i < hours; i++) {
+            temperature[i] = 18 + (float) Math.sin(i * Math.PI / 12) * 6;
+            humidity[i] = (short) (55 + i % 24);
+            weatherCode[i] = (short) (i % 3 == 0 ? 3 : 2);
+        }
+        long start = now - now % HourlyForecast.STEP_SECONDS - HourlyForecast.STEP_SECONDS;
+        weather = objectMapper.writeValueAsString(
+                new HourlyForecast(start, temperature, humidity, weatherCode, 0).toOpenMeteo(objectMapper));
+        forecast = HourlyForecast.fromOpenMeteo(objectMapper.readTree(weather), 0);
+    }
+    
+    @Benchmark
+    public Map<String, Object> quotable() throws IOException {
+        return ExternalDataService.parseQuoteResponse(objectMapper.readTree(QUOTABLE), "quotable");
+    }
+    
+    @Benchmark
+    public Map<String, Object> zenquotes() throws IOException {
+        return ExternalDataService.parseQuoteResponse(objectMapper.readTree(ZENQUOTES), "zenquotes");
+    }
+    
+    @Benchmark
+    public Map<String, Object> goprogram() throws IOException {
+        return ExternalDataService.parseQuoteResponse(objectMapper.readTree(GOPROGRAM), "goprogram");
+    }
+    
+    @Benchmark
+    public HourlyForecast weatherForecast() throws IOException {
+        return HourlyForecast.fromOpenMeteo(objectMapper.readTree(weather), 0);
+    }
+    
+    /**
+     * The "current weather" payload ExternalDataService answers from a parsed forecast.
+     */
+    @Benchmark
+    public Map<String, Object> currentWeather() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("temperature", TemperatureFormatter.format(forecast.temperatureAt(now)));
+        payload.put("condition", WeatherCodes.label(forecast.weatherCodeAt(now)));
+        payload.put("humidity", forecast.humidityAt(now) + "%");
+        return payload;
+    }
+    
+    @Benchmark
+    public Map<String, Object> ipLocation() throws IOException {
+        return LocationService.parseIPLocation(objectMapper.readTree(IP_LOCATION));
+    }
+    
+    @Benchmark
+    public Map<String, Object> reverseGeocode() throws IOException {
+        return LocationService.parseReverseGeocode(objectMapper.readTree(GEOCODING));
+    }
+}
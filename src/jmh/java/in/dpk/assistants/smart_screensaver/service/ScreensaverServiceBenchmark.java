@@ -0,0 +1,49 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import in.dpk.assistants.smart_screensaver.quote.QuoteCorpus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content assembly with stubbed upstream services, from a handful of routines to ten thousand, so
+ * the cost of routine matching shows up as the routine count grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScreensaverServiceBenchmark {
+    
+    @Param({"10", "100", "1000", "10000"})
+    public int routineCount;
+    
+    private ScreensaverService screensaverService;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path table = Files.createTempFile("quote-corpus", ".bin");
+        table.toFile().deleteOnExit();
+        QuoteCorpus quoteCorpus = new QuoteCorpus("", table.toString());
+        screensaverService = StubServices.screensaverService(StubServices.routines(routineCount, 42),
+                quoteCorpus, new ScreensaverMetrics(new SimpleMeterRegistry()));
+    }
+    
+    @Benchmark
+    public Map<String, Object> getScreensaverContent() {
+        return screensaverService.getScreensaverContent(null);
+    }
+}
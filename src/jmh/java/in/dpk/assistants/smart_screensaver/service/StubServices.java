@@ -0,0 +1,154 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import in.dpk.assistants.smart_screensaver.cache.WidgetCache;
+import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.entity.ActionSetConverter;
+import in.dpk.assistants.smart_screensaver.entity.Routine;
+import in.dpk.assistants.smart_screensaver.entity.UserPreference;
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import in.dpk.assistants.smart_screensaver.quote.QuoteCorpus;
+import in.dpk.assistants.smart_screensaver.entity.WidgetSnapshot;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Services with their upstream and database access replaced by fixed data, so benchmarks measure
+ * only the in-process work.
+ */
+final class StubServices {
+    
+    // A Wednesday morning, so routine matching does not depend on when the benchmark runs
+    static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 11, 8, 30);
+    
+    static final Map<String, Object> WEATHER = Map.of(
+            "temperature", "18.5°C", "condition", "Partly cloudy", "humidity", "62%",
+            "location", "Bengaluru", "source", "ip");
+    static final Map<String, Object> TRAFFIC = Map.of(
+            "duration", "24 min", "status", "Moderate", "route", "Home to Office", "source", "ip");
+    static final Map<String, Object> LOCATION = Map.of(
+            "latitude", "12.9716", "longitude", "77.5946", "city", "Bengaluru", "region", "Karnataka",
+            "country", "India", "timezone", "Asia/Kolkata", "source", "ip");
+    static final Map<String, Object> QUOTE = Map.of(
+            "text", "Simplicity is prerequisite for reliability.", "author", "Edsger W. Dijkstra",
+            "category", "Inspiration", "source", "quotable");
+    
+    private StubServices() {
+    }
+    
+    static ScreensaverService screensaverService(List<Routine.Snapshot> routines, QuoteCorpus quoteCorpus,
+                                                 ScreensaverMetrics metrics) {
+        WidgetSnapshotService snapshots = widgetSnapshotService();
+        ExternalApiConfig apiConfig = new ExternalApiConfig();
+        return new ScreensaverService(userService(routines), externalDataService(apiConfig, snapshots, quoteCorpus, metrics),
+                locationService(apiConfig, snapshots, metrics), new GreetingService(), timeService(), quoteCorpus, metrics);
+    }
+    
+    /**
+     * {@code count} routines with random time windows, day categories and actions, by descending priority.
+     */
+    static List<Routine.Snapshot> routines(int count, long seed) {
+        Random random = new Random(seed);
+        Routine.ActionType[] actionTypes = Routine.ActionType.values();
+        Routine.DayCategory[] categories = {Routine.DayCategory.WORKDAY, Routine.DayCategory.WEEKEND, Routine.DayCategory.ANY};
+        List<Routine.Snapshot> routines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            EnumSet<Routine.ActionType> actions = EnumSet.noneOf(Routine.ActionType.class);
+            for (Routine.ActionType action : actionTypes) {
+                if (random.nextInt(3) == 0) {
+                    actions.add(action);
+                }
+            }
+            LocalTime start = LocalTime.of(random.nextInt(22), random.nextInt(4) * 15);
+            LocalTime end = start.plusMinutes(30 + random.nextInt(120));
+            if (end.isBefore(start)) {
+                end = LocalTime.MAX;
+            }
+            routines.add(new Routine.Snapshot((long) i, "Routine " + i, start, end, categories[random.nextInt(categories.length)],
+                    actions, ActionSetConverter.toMask(actions), "Stand-up at 9:30", random.nextBoolean() ? "corpus" : "",
+                    true, true, true, true, true, random.nextInt(10), null));
+        }
+        routines.sort(Comparator.comparingInt(Routine.Snapshot::priority).reversed());
+        return List.copyOf(routines);
+    }
+    
+    private static UserService userService(List<Routine.Snapshot> routines) {
+        UserService.EnabledRoutines enabled = new UserService.EnabledRoutines(1, routines);
+        return new UserService() {
+            @Override
+            public UserService.EnabledRoutines getEnabledRoutineSet() {
+                return enabled;
+            }
+            
+            @Override
+            public UserPreference.Snapshot getPreferenceSnapshot() {
+                return null;
+            }
+        };
+    }
+    
+    private static TimeService timeService() {
+        return new TimeService() {
+            @Override
+            public LocalDateTime getCurrentDateTime() {
+                return NOW;
+            }
+        };
+    }
+    
+    private static WidgetSnapshotService widgetSnapshotService() {
+        // No repository: the background load fails quietly and nothing is restored or saved
+        return new WidgetSnapshotService(null) {
+            @Override
+            public void whenLoaded(String widget, Consumer<List<WidgetSnapshot>> consumer) {
+            }
+            
+            @Override
+            public void attach(WidgetCache<Map<String, Object>> cache) {
+            }
+        };
+    }
+    
+    private static ExternalDataService externalDataService(ExternalApiConfig apiConfig, WidgetSnapshotService snapshots,
+                                                           QuoteCorpus quoteCorpus, ScreensaverMetrics metrics) {
+        return new ExternalDataService(null, apiConfig, null, null, null, snapshots, null, quoteCorpus,
+                null, null, null, metrics) {
+            @Override
+            public Map<String, Object> getWeatherInfo() {
+                return WEATHER;
+            }
+            
+            @Override
+            public Map<String, Object> getTrafficInfo() {
+                return TRAFFIC;
+            }
+            
+            @Override
+            public Map<String, Object> getQuoteOfTheDay() {
+                return QUOTE;
+            }
+            
+            @Override
+            public Map<String, Object> getRotatingQuote() {
+                return QUOTE;
+            }
+        };
+    }
+    
+    private static LocationService locationService(ExternalApiConfig apiConfig, WidgetSnapshotService snapshots,
+                                                   ScreensaverMetrics metrics) {
+        return new LocationService(null, apiConfig, null, snapshots, metrics) {
+            @Override
+            public Map<String, Object> getLocationInfo() {
+                return LOCATION;
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package in.dpk.assistants.smart_screensaver.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * All latencies of one endpoint, kept exactly so percentiles need no bucketing. A ten-minute run
+ * at a few thousand requests a second stays well under a hundred megabytes.
+ */
+class LatencyRecorder {
+    
+    private long[] nanos = new long[1024];
+    private int count;
+    private long failures;
+    
+    synchronized void record(long latencyNanos, boolean success) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latencyNanos;
+        if (!success) {
+            failures++;
+        }
+    }
+    
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        return new Summary(count, failures, seconds > 0 ? count / seconds : 0,
+                millis(sorted, 0.50), millis(sorted, 0.99), millis(sorted, 0.999),
+                count > 0 ? sorted[count - 1] / 1e6 : 0);
+    }
+    
+    /**
+     * Nearest-rank percentile in milliseconds.
+     */
+    static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+    
+    record Summary(long requests, long failures, double throughput, double p50, double p99, double p999, double max) {
+    }
+}
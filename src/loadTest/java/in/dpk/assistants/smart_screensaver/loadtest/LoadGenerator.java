@@ -0,0 +1,124 @@
+package in.dpk.assistants.smart_screensaver.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates displays polling the application, each on its own virtual thread with its own device ID.
+ * A display loads the Vaadin page, then polls /api/realtime-data every think time and the individual
+ * /api/screensaver widgets less often, like the page's own scripts do. Requests made during the
+ * warm-up are not recorded.
+ */
+@Slf4j
+class LoadGenerator {
+    
+    static final List<Endpoint> ENDPOINTS = List.of(
+            new Endpoint("vaadin-route", "/", 30),
+            new Endpoint("realtime-data", "/api/realtime-data", 1),
+            new Endpoint("content", "/api/screensaver/content", 5),
+            new Endpoint("weather", "/api/screensaver/weather", 10),
+            new Endpoint("quote", "/api/screensaver/quote", 10),
+            new Endpoint("traffic", "/api/screensaver/traffic", 10),
+            new Endpoint("location", "/api/screensaver/location", 10),
+            new Endpoint("bus", "/api/screensaver/bus", 10));
+    
+    private final URI baseUri;
+    private final HttpClient client;
+    private final List<Endpoint> endpoints;
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final LatencyRecorder overall = new LatencyRecorder();
+    
+    LoadGenerator(URI baseUri, boolean includeVaadin) {
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.endpoints = ENDPOINTS.stream()
+                .filter(endpoint -> includeVaadin || !endpoint.path().equals("/"))
+                .toList();
+        endpoints.forEach(endpoint -> recorders.put(endpoint.name(), new LatencyRecorder()));
+    }
+    
+    /**
+     * Runs {@code displays} displays for the warm-up plus the measured duration and summarizes the
+     * measured part per endpoint, with "all" last.
+     */
+    Map<String, LatencyRecorder.Summary> run(int displays, Duration warmup, Duration duration, Duration thinkTime)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < displays; i++) {
+                String deviceId = "load-" + i;
+                // Spread the first requests over one think time instead of starting all displays at once
+                long offset = thinkTime.toNanos() * i / Math.max(displays, 1);
+                executor.submit(() -> display(deviceId, offset, measureFrom, end, thinkTime));
+            }
+            executor.shutdown();
+            executor.awaitTermination(warmup.plus(duration).plus(thinkTime).toSeconds() + 60, TimeUnit.SECONDS);
+        }
+        double seconds = duration.toNanos() / 1e9;
+        Map<String, LatencyRecorder.Summary> summaries = new LinkedHashMap<>();
+        recorders.forEach((name, recorder) -> summaries.put(name, recorder.summarize(seconds)));
+        summaries.put("all", overall.summarize(seconds));
+        return summaries;
+    }
+    
+    private Void display(String deviceId, long offsetNanos, long measureFrom, long end, Duration thinkTime)
+            throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(offsetNanos);
+        for (int cycle = 0; System.nanoTime() < end; cycle++) {
+            for (Endpoint endpoint : endpoints) {
+                if (cycle % endpoint.everyCycles() == 0) {
+                    request(endpoint, deviceId, measureFrom, end);
+                }
+            }
+            // +-50% jitter keeps displays from falling into lockstep
+            long think = (long) (thinkTime.toNanos() * (0.5 + ThreadLocalRandom.current().nextDouble()));
+            TimeUnit.NANOSECONDS.sleep(Math.min(think, Math.max(end - System.nanoTime(), 0)));
+        }
+        return null;
+    }
+    
+    private void request(Endpoint endpoint, String deviceId, long measureFrom, long end) {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(endpoint.path()))
+                .header("X-Device-Id", deviceId)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long started = System.nanoTime();
+        boolean success;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() < 400;
+        } catch (Exception e) {
+            log.debug("Request to {} failed: {}", endpoint.path(), e.getMessage());
+            success = false;
+        }
+        long finished = System.nanoTime();
+        if (started >= measureFrom && finished <= end) {
+            recorders.get(endpoint.name()).record(finished - started, success);
+            overall.record(finished - started, success);
+        }
+    }
+    
+    /**
+     * A polled URL, requested on every {@code everyCycles}-th poll of a display (the first one included).
+     */
+    record Endpoint(String name, String path, int everyCycles) {
+    }
+}
@@ -0,0 +1,105 @@
+package in.dpk.assistants.smart_screensaver.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import in.dpk.assistants.smart_screensaver.SmartScreensaverApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * End-to-end load test that runs offline: starts the stub upstream server, boots the application
+ * against it with the {@code loadtest} profile (unless {@code loadTest.target} points at a running
+ * instance), drives it with simulated displays and prints throughput and latency percentiles per
+ * endpoint. Settings are {@code loadTest.*} system properties, see {@link #main}.
+ */
+public final class LoadTest {
+    
+    private LoadTest() {
+    }
+    
+    /**
+     * System properties (defaults in brackets): displays [50], warmup [PT10S], duration [PT60S],
+     * thinkTime [PT1S], vaadin [true], target [boot in-process], report [build/reports/loadtest/results.json],
+     * stub.port [0, any free port], stub.latency [PT0.08S], stub.spread [0.5], stub.errorRate [0.01],
+     * stub.timeoutRate [0.001], stub.timeoutDelay [PT15S], all prefixed with {@code loadTest.}.
+     */
+    public static void main(String[] args) throws Exception {
+        int displays = Integer.parseInt(setting("displays", "50"));
+        Duration warmup = Duration.parse(setting("warmup", "PT10S"));
+        Duration duration = Duration.parse(setting("duration", "PT60S"));
+        Duration thinkTime = Duration.parse(setting("thinkTime", "PT1S"));
+        boolean includeVaadin = Boolean.parseBoolean(setting("vaadin", "true"));
+        String target = setting("target", "");
+        Path report = Path.of(setting("report", "build/reports/loadtest/results.json"));
+        StubUpstreamServer.Faults faults = new StubUpstreamServer.Faults(
+                Duration.parse(setting("stub.latency", "PT0.08S")),
+                Double.parseDouble(setting("stub.spread", "0.5")),
+                Double.parseDouble(setting("stub.errorRate", "0.01")),
+                Double.parseDouble(setting("stub.timeoutRate", "0.001")),
+                Duration.parse(setting("stub.timeoutDelay", "PT15S")));
+        
+        ConfigurableApplicationContext application = null;
+        try (StubUpstreamServer stub = new StubUpstreamServer(Integer.parseInt(setting("stub.port", "0")), faults).start()) {
+            if (target.isBlank()) {
+                SpringApplication app = new SpringApplication(SmartScreensaverApplication.class);
+                app.setAdditionalProfiles("loadtest");
+                application = app.run("--server.port=0", "--loadtest.stub-url=" + stub.baseUrl());
+                target = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+            }
+            
+            System.out.printf("Load test: %d displays against %s, %s warm-up, %s measured%n",
+                    displays, target, warmup, duration);
+            Map<String, LatencyRecorder.Summary> results = new LoadGenerator(URI.create(target), includeVaadin)
+                    .run(displays, warmup, duration, thinkTime);
+            
+            print(results);
+            System.out.printf("Stub upstream: %d requests, %d injected errors, %d injected timeouts%n",
+                    stub.getRequests(), stub.getErrors(), stub.getTimeouts());
+            write(report, displays, warmup, duration, thinkTime, faults, results);
+        } finally {
+            if (application != null) {
+                SpringApplication.exit(application);
+            }
+        }
+        System.exit(0);
+    }
+    
+    private static void print(Map<String, LatencyRecorder.Summary> results) {
+        System.out.printf("%-16s %9s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "failed", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        results.forEach((name, s) -> System.out.printf("%-16s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, s.requests(), s.failures(), s.throughput(), s.p50(), s.p99(), s.p999(), s.max()));
+    }
+    
+    private static void write(Path report, int displays, Duration warmup, Duration duration, Duration thinkTime,
+                              StubUpstreamServer.Faults faults, Map<String, LatencyRecorder.Summary> results)
+            throws Exception {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("displays", displays);
+        json.put("warmup", warmup.toString());
+        json.put("duration", duration.toString());
+        json.put("thinkTime", thinkTime.toString());
+        json.put("stub", Map.of(
+                "latency", faults.medianLatency().toString(),
+                "spread", faults.latencySpread(),
+                "errorRate", faults.errorRate(),
+                "timeoutRate", faults.timeoutRate()));
+        json.put("endpoints", results);
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), json);
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+    
+    private static String setting(String name, String defaultValue) {
+        return System.getProperty("loadTest." + name, defaultValue);
+    }
+}
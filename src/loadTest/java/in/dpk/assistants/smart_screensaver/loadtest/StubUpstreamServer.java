@@ -0,0 +1,192 @@
+package in.dpk.assistants.smart_screensaver.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Stands in for Open-Meteo, ipapi.co and the quote APIs with recorded payloads, so load tests never
+ * leave the machine. Every response is delayed by a log-normal latency, and a share of requests
+ * fail with 503 or stall past the application's API timeout, as set by {@link Faults}.
+ */
+@Slf4j
+public class StubUpstreamServer implements AutoCloseable {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Faults faults;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final JsonNode forecast;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    
+    public StubUpstreamServer(int port, Faults faults) throws IOException {
+        this.faults = faults;
+        this.forecast = objectMapper.readTree(payload("open-meteo"));
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(executor);
+        // Paths mirror the real endpoints, so only the host differs in the application's URLs
+        serve("/v1/forecast", this::forecastFor);
+        serve("/v1/search", fixed("geocoding"));
+        serve("/json", fixed("ipapi"));
+        serve("/random", fixed("quotable"));
+        serve("/quotes/random", fixed("quotable-batch"));
+        serve("/zenquotes/random", fixed("zenquotes"));
+        serve("/zenquotes/quotes", fixed("zenquotes-batch"));
+        serve("/inspiration", fixed("goprogram"));
+    }
+    
+    public StubUpstreamServer start() {
+        server.start();
+        log.info("Stub upstream server listening on {} with {}", baseUrl(), faults);
+        return this;
+    }
+    
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+    
+    public long getRequests() {
+        return requests.sum();
+    }
+    
+    public long getErrors() {
+        return errors.sum();
+    }
+    
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    private void serve(String path, Function<HttpExchange, byte[]> body) {
+        server.createContext(path, exchange -> {
+            try {
+                requests.increment();
+                double roll = ThreadLocalRandom.current().nextDouble();
+                if (roll < faults.timeoutRate()) {
+                    timeouts.increment();
+                    sleep(faults.timeoutDelay());
+                    respond(exchange, 504, "{\"error\":\"stub timeout\"}".getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                sleep(faults.sampleLatency());
+                if (roll < faults.timeoutRate() + faults.errorRate()) {
+                    errors.increment();
+                    respond(exchange, 503, "{\"error\":\"stub error\"}".getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                respond(exchange, 200, body.apply(exchange));
+            } catch (IOException e) {
+                // The client gave up first, typically on an injected timeout
+                log.debug("Could not answer {}: {}", path, e.getMessage());
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+    
+    private Function<HttpExchange, byte[]> fixed(String name) {
+        byte[] body = payload(name);
+        return exchange -> body;
+    }
+    
+    /**
+     * The recorded forecast moved to start an hour ago, repeated once per requested coordinate the way
+     * multi-location requests are answered.
+     */
+    private byte[] forecastFor(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        int locations = 1;
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("latitude=")) {
+                    locations = parameter.split("%2C|,").length;
+                }
+            }
+        }
+        ObjectNode shifted = forecast.deepCopy();
+        ArrayNode times = (ArrayNode) shifted.path("hourly").path("time");
+        long start = Instant.now().getEpochSecond() / 3600 * 3600 - 3600;
+        for (int i = 0; i < times.size(); i++) {
+            times.set(i, start + i * 3600L);
+        }
+        try {
+            if (locations == 1) {
+                return objectMapper.writeValueAsBytes(shifted);
+            }
+            ArrayNode all = objectMapper.createArrayNode();
+            for (int i = 0; i < locations; i++) {
+                all.add(shifted);
+            }
+            return objectMapper.writeValueAsBytes(all);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    
+    private static byte[] payload(String name) {
+        try (InputStream in = StubUpstreamServer.class.getResourceAsStream("/payloads/" + name + ".json")) {
+            if (in == null) {
+                throw new IllegalStateException("Missing recorded payload " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static void sleep(Duration duration) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(duration.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Latency and failure mix of the stub. Latencies are log-normal around {@code medianLatency};
+     * {@code latencySpread} is the sigma of the underlying normal, so 0 gives a constant latency.
+     */
+    public record Faults(Duration medianLatency, double latencySpread, double errorRate, double timeoutRate,
+                         Duration timeoutDelay) {
+        
+        Duration sampleLatency() {
+            double factor = Math.exp(latencySpread * ThreadLocalRandom.current().nextGaussian());
+            return Duration.ofNanos((long) (medianLatency.toNanos() * factor));
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package in.dpk.assistants.smart_screensaver.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Small TTL cache for widget payloads keyed by location key (or any other string key).
+ * Entries are evicted explicitly on LocationChangedEvent, so the TTL only bounds data freshness.
+ * <p>
+ * With a max-stale longer than the TTL the cache serves stale-while-revalidate: expired entries are
+ * returned immediately (flagged stale) while a single background refresh per key reloads them.
+ */
+@Slf4j
+public class WidgetCache<V> {
+    
+    // Shared by every cache; refreshes queue up behind a slow upstream instead of each taking a thread
+    private static final int REFRESH_THREADS = 4;
+    private static final ExecutorService REFRESH_EXECUTOR = Executors.newFixedThreadPool(REFRESH_THREADS, r -> {
+        Thread thread = new Thread(r, "widget-cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Hits on the current thread, counted only between startCountingHits and stopCountingHits
+    private static final ThreadLocal<int[]> THREAD_HITS = new ThreadLocal<>();
+    
+    private final String name;
+    private final Duration ttl;
+    private final Duration maxStale;
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private volatile BiConsumer<String, V> loadListener;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    public WidgetCache(String name, Duration ttl) {
+        this(name, ttl, ttl);
+    }
+    
+    public WidgetCache(String name, Duration ttl, Duration maxStale) {
+        this.name = name;
+        this.ttl = ttl;
+        this.maxStale = maxStale.compareTo(ttl) < 0 ? ttl : maxStale;
+    }
+    
+    /**
+     * Returns the value only while it is fresh.
+     */
+    public V get(String key) {
+        if (key == null) {
+            return null;
+        }
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        long age = System.currentTimeMillis() - entry.storedAt;
+        if (age > maxStale.toMillis()) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        if (age > ttl.toMillis()) {
+            misses.increment();
+            return null;
+        }
+        hit(hits);
+        return entry.value;
+    }
+    
+    /**
+     * Stale-while-revalidate lookup. Fresh entries are returned as-is; stale entries within max-stale
+     * are returned flagged stale and trigger one background refresh; otherwise the loader runs inline.
+     * The loader may return null to signal failure, in which case nothing is cached.
+     *
+     * @return the lookup result, or null if nothing is cached and the loader failed
+     */
+    public Lookup<V> getOrRefresh(String key, Supplier<V> loader) {
+        if (key == null) {
+            V value = loader.get();
+            return value == null ? null : new Lookup<>(value, false);
+        }
+        
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            long age = System.currentTimeMillis() - entry.storedAt;
+            if (age <= ttl.toMillis()) {
+                hit(hits);
+                return new Lookup<>(entry.value, false);
+            }
+            if (age <= maxStale.toMillis()) {
+                hit(staleHits);
+                refreshAsync(key, entry, loader);
+                return new Lookup<>(entry.value, true);
+            }
+        }
+        
+        misses.increment();
+        V value = loader.get();
+        if (value == null) {
+            return null;
+        }
+        put(key, value);
+        return new Lookup<>(value, false);
+    }
+    
+    /**
+     * Registers a callback invoked whenever a loader produced a new value, e.g. to persist it
+     * as the last known good snapshot.
+     */
+    public WidgetCache<V> onLoad(BiConsumer<String, V> listener) {
+        this.loadListener = listener;
+        return this;
+    }
+    
+    /**
+     * Seeds an entry with its original fetch time, so restored data ages (and revalidates) normally.
+     */
+    public void restore(String key, V value, long storedAtMillis) {
+        if (key != null && value != null) {
+            entries.putIfAbsent(key, new Entry<>(value, storedAtMillis));
+        }
+    }
+    
+    /**
+     * Stores a fresh value, replacing any entry in one step, and passes it to the load listener like
+     * a loaded value (so it is written behind to the snapshot store).
+     */
+    public void put(String key, V value) {
+        if (key != null && value != null) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+            notifyLoaded(key, value);
+        }
+    }
+    
+    public boolean evict(String key) {
+        if (key != null && entries.remove(key) != null) {
+            evictions.increment();
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Evicts every entry whose key matches, returning how many were removed.
+     */
+    public int evictIf(Predicate<String> keyFilter) {
+        int removed = 0;
+        for (String key : entries.keySet()) {
+            if (keyFilter.test(key) && evict(key)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+    
+    public void clear() {
+        evictions.add(entries.size());
+        entries.clear();
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public Duration getTtl() {
+        return ttl;
+    }
+    
+    public Duration getMaxStale() {
+        return maxStale;
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    public long getEvictions() {
+        return evictions.sum();
+    }
+    
+    /**
+     * Starts counting cache hits (fresh or stale, in any cache) made by the current thread.
+     */
+    public static void startCountingHits() {
+        THREAD_HITS.set(new int[1]);
+    }
+    
+    /**
+     * Stops counting on this thread and returns the hits since {@link #startCountingHits()}.
+     */
+    public static int stopCountingHits() {
+        int[] count = THREAD_HITS.get();
+        THREAD_HITS.remove();
+        return count != null ? count[0] : 0;
+    }
+    
+    /**
+     * Copy of a widget payload served past its TTL, flagged in the "source" field.
+     */
+    public static Map<String, Object> markStale(Map<String, Object> payload) {
+        Map<String, Object> copy = new HashMap<>(payload);
+        Object source = copy.get("source");
+        copy.put("source", source == null || source.toString().isEmpty() ? "stale" : source + " (stale)");
+        return copy;
+    }
+    
+    private static void hit(LongAdder counter) {
+        counter.increment();
+        int[] threadHits = THREAD_HITS.get();
+        if (threadHits != null) {
+            threadHits[0]++;
+        }
+    }
+    
+    /**
+     * Reloads a stale entry in the background. The result only replaces that same entry, so a key
+     * evicted (or overwritten) while the loader ran is not brought back.
+     */
+    private void refreshAsync(String key, Entry<V> stale, Supplier<V> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        CompletableFuture.supplyAsync(loader, REFRESH_EXECUTOR)
+                .whenComplete((value, error) -> {
+                    try {
+                        if (error != null) {
+                            log.warn("Background refresh of {} cache entry {} failed: {}", name, key, error.getMessage());
+                        } else if (value != null) {
+                            if (entries.replace(key, stale, new Entry<>(value, System.currentTimeMillis()))) {
+                                notifyLoaded(key, value);
+                            } else {
+                                log.debug("Dropped refresh of {} cache entry {}, it changed meanwhile", name, key);
+                            }
+                        }
+                    } finally {
+                        refreshing.remove(key);
+                    }
+                });
+    }
+    
+    private void notifyLoaded(String key, V value) {
+        BiConsumer<String, V> listener = loadListener;
+        if (listener != null) {
+            try {
+                listener.accept(key, value);
+            } catch (Exception e) {
+                log.warn("Load listener of {} cache failed for {}: {}", name, key, e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Result of a stale-while-revalidate lookup.
+     */
+    public record Lookup<V>(V value, boolean stale) {
+    }
+    
+    private record Entry<V>(V value, long storedAt) {
+    }
+}
@@ -5,10 +5,12 @@ import in.dpk.assistants.smart_screensaver.entity.Routine;
 import in.dpk.assistants.smart_screensaver.repository.UserPreferenceRepository;
 import in.dpk.assistants.smart_screensaver.repository.RoutineRepository;
 import in.dpk.assistants.smart_screensaver.service.SystemSettingsService;
+import in.dpk.assistants.smart_screensaver.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalTime;
 import java.util.Arrays;
@@ -26,11 +28,28 @@ public class DataInitializer implements CommandLineRunner {
     
     @Autowired
     private SystemSettingsService systemSettingsService;
+    
+    @Autowired
+    private UserService userService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
     @Override
     public void run(String... args) throws Exception {
         log.info("Starting data initialization...");
         
+        // All seeding shares one transaction, so its inserts are flushed together
+        boolean routinesCreated = Boolean.TRUE.equals(transactionTemplate.execute(status -> seed()));
+        if (routinesCreated) {
+            // Displays may already have polled (and cached) the empty routine list
+            userService.routinesChanged();
+        }
+        
+        log.info("Data initialization completed successfully");
+    }
+    
+    private boolean seed() {
         // Initialize system settings
         log.info("Initializing system settings...");
         systemSettingsService.initializeDefaultSettings();
@@ -47,11 +66,10 @@ public class DataInitializer implements CommandLineRunner {
         if (routineRepository.count() == 0) {
             log.info("No routines found, creating default routines");
             createDefaultRoutines();
-        } else {
-            log.info("Routines already exist in database");
+            return true;
         }
-        
-        log.info("Data initialization completed successfully");
+        log.info("Routines already exist in database");
+        return false;
     }
     
     private void createDefaultUserPreference() {
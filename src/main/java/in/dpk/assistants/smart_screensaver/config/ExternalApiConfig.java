@@ -26,6 +26,42 @@ public class ExternalApiConfig {
     private String weatherApiUrl = "https://api.open-meteo.com/v1/forecast";
     private String locationApiUrl = "https://ipapi.co/json/";
     private String quoteApiUrl = "https://api.quotable.io/random";
+    private String geocodingApiUrl = "https://geocoding-api.open-meteo.com/v1/search";
+    // Fallback quote providers, tried after the configured quote API
+    private String zenquotesApiUrl = "https://zenquotes.io/api";
+    private String goprogramApiUrl = "https://api.goprogram.ai/inspiration";
+    
+    // Location-derived caches are evicted on LocationChangedEvent, so these only bound freshness
+    private Duration weatherRefreshInterval = Duration.ofHours(6);
+    private Duration locationCacheTtl = Duration.ofHours(6);
+    // A display that has not asked for its location this long is forgotten (and no longer keeps its location in use)
+    private Duration deviceLocationIdleTimeout = Duration.ofDays(1);
+    
+    // Expired entries keep being served (marked stale) while they refresh, but never past this age
+    private Duration maxStale = Duration.ofHours(24);
+    
+    // Forecast requests arriving within this window are sent as one multi-coordinate call
+    private Duration weatherBatchWindow = Duration.ofMillis(50);
+    private int weatherBatchSize = 50;
+    
+    // Seed and update parameters of the per-route traffic model
+    private float trafficFreeFlowMinutes = 20f;
+    private float trafficDistanceKm = 8.5f;
+    private float trafficSampleWeight = 0.2f;
+    
+    // GTFS static feed directory, indexed into a memory-mapped stop-time file
+    private String gtfsStaticPath;
+    private String gtfsIndexFile = "./data/gtfs-index.bin";
+    private String transitStopId;
+    private int transitDepartureCount = 3;
+    
+    // GTFS-Realtime TripUpdates feed (http(s) or file URL, or a local path) and how long trip delays are kept
+    private String gtfsRealtimeUrl;
+    private Duration gtfsRealtimeExpiry = Duration.ofHours(2);
+    
+    // Rotating quotes are served from a prefetched pool that is topped up below the low-water mark
+    private int quotePoolSize = 64;
+    private int quotePoolLowWater = 16;
     
     @Bean
     public WebClient webClient() throws SSLException {
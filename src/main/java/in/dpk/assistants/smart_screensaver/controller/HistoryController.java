@@ -0,0 +1,58 @@
+package in.dpk.assistants.smart_screensaver.controller;
+
+import in.dpk.assistants.smart_screensaver.timeseries.TimeSeriesStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/history")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class HistoryController {
+    
+    private final TimeSeriesStore timeSeriesStore;
+    
+    @GetMapping
+    public ResponseEntity<List<TimeSeriesStore.SeriesId>> getSeries() {
+        return ResponseEntity.ok(timeSeriesStore.list());
+    }
+    
+    /**
+     * Samples of one series as [epochSecond, value] pairs. {@code from}/{@code to} are epoch seconds
+     * (default: the last 24 hours); {@code step} averages the samples into buckets of that many seconds.
+     */
+    @GetMapping("/{metric}")
+    public ResponseEntity<Map<String, Object>> getHistory(@PathVariable String metric,
+                                                          @RequestParam String key,
+                                                          @RequestParam(required = false) Long from,
+                                                          @RequestParam(required = false) Long to,
+                                                          @RequestParam(defaultValue = "0") long step) {
+        if (!TimeSeriesStore.isValidName(metric) || !TimeSeriesStore.isValidName(key)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid series"));
+        }
+        long end = to != null ? to : Instant.now().getEpochSecond();
+        long start = from != null ? from : end - Duration.ofDays(1).toSeconds();
+        List<TimeSeriesStore.Point> points = TimeSeriesStore.downsample(
+                timeSeriesStore.query(metric, key, start, end), step);
+        
+        List<double[]> values = new ArrayList<>(points.size());
+        for (TimeSeriesStore.Point point : points) {
+            values.add(new double[]{point.epochSecond(), point.value()});
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("metric", metric);
+        response.put("key", key);
+        response.put("from", start);
+        response.put("to", end);
+        response.put("points", values);
+        return ResponseEntity.ok(response);
+    }
+}
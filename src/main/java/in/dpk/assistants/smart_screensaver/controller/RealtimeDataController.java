@@ -2,6 +2,7 @@ package in.dpk.assistants.smart_screensaver.controller;
 
 import com.vaadin.flow.server.HandlerHelper;
 import com.vaadin.flow.shared.communication.PushMode;
+import in.dpk.assistants.smart_screensaver.entity.UserPreference;
 import in.dpk.assistants.smart_screensaver.service.ScreensaverService;
 import in.dpk.assistants.smart_screensaver.service.UserService;
 import lombok.extern.slf4j.Slf4j;
@@ -31,15 +32,17 @@ public class RealtimeDataController {
     @ResponseBody
     public Map<String, Object> getRealtimeData() {
         try {
-            Map<String, Object> content = screensaverService.getScreensaverContent();
+            // One preference lookup serves the whole response
+            UserPreference.Snapshot preferences = userService.getPreferenceSnapshot();
+            Map<String, Object> content = screensaverService.getScreensaverContent(preferences);
             
             // Remove time and date from server response since they'll be handled client-side
             content.remove("time");
             content.remove("date");
             
             // Add user preference info
-            if (userService.getUserPreference() != null) {
-                content.put("userName", userService.getUserPreference().getDisplayName());
+            if (preferences != null) {
+                content.put("userName", preferences.displayName());
             } else {
                 content.put("userName", "User");
             }
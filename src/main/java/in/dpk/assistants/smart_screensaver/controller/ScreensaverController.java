@@ -3,6 +3,7 @@ package in.dpk.assistants.smart_screensaver.controller;
 import in.dpk.assistants.smart_screensaver.service.ScreensaverService;
 import in.dpk.assistants.smart_screensaver.service.ExternalDataService;
 import in.dpk.assistants.smart_screensaver.service.LocationService;
+import in.dpk.assistants.smart_screensaver.service.TrafficService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +21,7 @@ public class ScreensaverController {
     private final ScreensaverService screensaverService;
     private final ExternalDataService externalDataService;
     private final LocationService locationService;
+    private final TrafficService trafficService;
     
     @GetMapping("/content")
     public ResponseEntity<Map<String, Object>> getScreensaverContent() {
@@ -129,6 +131,17 @@ public class ScreensaverController {
         }
     }
     
+    @GetMapping("/quote/next")
+    public ResponseEntity<Map<String, Object>> getRotatingQuote() {
+        try {
+            Map<String, Object> quote = externalDataService.getRotatingQuote();
+            return ResponseEntity.ok(quote);
+        } catch (Exception e) {
+            log.error("Error getting rotating quote: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
     @GetMapping("/traffic")
     public ResponseEntity<Map<String, Object>> getTrafficInfo() {
         try {
@@ -140,6 +153,18 @@ public class ScreensaverController {
         }
     }
     
+    @PostMapping("/traffic/samples")
+    public ResponseEntity<Map<String, Object>> recordTrafficSample(@RequestBody Map<String, Object> sampleData) {
+        try {
+            float travelMinutes = Float.parseFloat(sampleData.get("travelMinutes").toString());
+            trafficService.recordSample(travelMinutes);
+            return ResponseEntity.ok(Map.of("message", "Traffic sample recorded"));
+        } catch (Exception e) {
+            log.error("Error recording traffic sample: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid traffic sample"));
+        }
+    }
+    
     @GetMapping("/bus")
     public ResponseEntity<Map<String, Object>> getBusLocation() {
         try {
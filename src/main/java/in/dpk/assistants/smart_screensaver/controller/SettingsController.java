@@ -25,7 +25,7 @@ public class SettingsController {
     
     @PutMapping("/preferences")
     public ResponseEntity<UserPreference> updateUserPreferences(@RequestBody UserPreference userPreference) {
-        UserPreference updated = userService.updateUserPreference(userPreference);
+        UserPreference updated = userService.updateDevicePreference(userPreference);
         return ResponseEntity.ok(updated);
     }
     
@@ -1,6 +1,7 @@
 package in.dpk.assistants.smart_screensaver.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import in.dpk.assistants.smart_screensaver.entity.UserPreference;
 import in.dpk.assistants.smart_screensaver.service.ScreensaverService;
 import in.dpk.assistants.smart_screensaver.service.UserService;
 import lombok.extern.slf4j.Slf4j;
@@ -29,15 +30,17 @@ public class WebSocketController {
     @Scheduled(fixedRate = 30000) // 30 seconds
     public void prepareRealtimeData() {
         try {
-            Map<String, Object> content = screensaverService.getScreensaverContent();
+            // One preference lookup serves the whole response
+            UserPreference.Snapshot preferences = userService.getPreferenceSnapshot();
+            Map<String, Object> content = screensaverService.getScreensaverContent(preferences);
             
             // Remove time and date since they're handled client-side
             content.remove("time");
             content.remove("date");
             
             // Add user preference info
-            if (userService.getUserPreference() != null) {
-                content.put("userName", userService.getUserPreference().getDisplayName());
+            if (preferences != null) {
+                content.put("userName", preferences.displayName());
             } else {
                 content.put("userName", "User");
             }
@@ -0,0 +1,42 @@
+package in.dpk.assistants.smart_screensaver.device;
+
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.regex.Pattern;
+
+/**
+ * Identifies the display a request comes from. Each kiosk sends its ID in the {@code X-Device-Id}
+ * header or opens the screensaver once with {@code ?deviceId=...} (remembered in a cookie); requests
+ * without one, and work done outside a request, belong to the {@code default} device.
+ */
+public final class DeviceContext {
+    
+    public static final String DEFAULT_DEVICE_ID = "default";
+    public static final String HEADER = "X-Device-Id";
+    public static final String PARAMETER = "deviceId";
+    public static final String COOKIE = "deviceId";
+    
+    static final String ATTRIBUTE = DeviceContext.class.getName() + ".deviceId";
+    
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    
+    private DeviceContext() {
+    }
+    
+    public static String currentDeviceId() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getRequest().getAttribute(ATTRIBUTE) instanceof String deviceId) {
+            return deviceId;
+        }
+        return DEFAULT_DEVICE_ID;
+    }
+    
+    public static boolean isDefaultDevice(String deviceId) {
+        return DEFAULT_DEVICE_ID.equals(deviceId);
+    }
+    
+    static boolean isValid(String deviceId) {
+        return deviceId != null && VALID_ID.matcher(deviceId).matches();
+    }
+}
@@ -0,0 +1,56 @@
+package in.dpk.assistants.smart_screensaver.device;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Resolves the device ID of every request (header, then query parameter, then cookie) for
+ * {@link DeviceContext}. An ID given as a query parameter is stored in a cookie, so the page's own
+ * fetches and Vaadin requests keep the device without passing it along.
+ */
+@Component
+public class DeviceIdFilter extends OncePerRequestFilter {
+    
+    private static final int COOKIE_MAX_AGE = (int) Duration.ofDays(365).toSeconds();
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String deviceId = request.getHeader(DeviceContext.HEADER);
+        if (!DeviceContext.isValid(deviceId)) {
+            deviceId = request.getParameter(DeviceContext.PARAMETER);
+            if (DeviceContext.isValid(deviceId)) {
+                Cookie cookie = new Cookie(DeviceContext.COOKIE, deviceId);
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge(COOKIE_MAX_AGE);
+                response.addCookie(cookie);
+            } else {
+                deviceId = cookieValue(request);
+            }
+        }
+        if (DeviceContext.isValid(deviceId)) {
+            request.setAttribute(DeviceContext.ATTRIBUTE, deviceId);
+        }
+        chain.doFilter(request, response);
+    }
+    
+    private static String cookieValue(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (DeviceContext.COOKIE.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
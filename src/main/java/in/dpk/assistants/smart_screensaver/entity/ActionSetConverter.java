@@ -0,0 +1,55 @@
+package in.dpk.assistants.smart_screensaver.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Collection;
+import java.util.EnumSet;
+
+/**
+ * Stores a routine's actions as one integer column, bit {@code n} standing for the ActionType with
+ * ordinal {@code n}. New action types must therefore only be appended to the enum.
+ */
+@Converter
+public class ActionSetConverter implements AttributeConverter<EnumSet<Routine.ActionType>, Integer> {
+    
+    private static final Routine.ActionType[] ACTION_TYPES = Routine.ActionType.values();
+    
+    @Override
+    public Integer convertToDatabaseColumn(EnumSet<Routine.ActionType> actions) {
+        return toMask(actions);
+    }
+    
+    @Override
+    public EnumSet<Routine.ActionType> convertToEntityAttribute(Integer mask) {
+        return fromMask(mask != null ? mask : 0);
+    }
+    
+    public static int toMask(Collection<Routine.ActionType> actions) {
+        int mask = 0;
+        if (actions != null) {
+            for (Routine.ActionType action : actions) {
+                mask |= 1 << action.ordinal();
+            }
+        }
+        return mask;
+    }
+    
+    public static EnumSet<Routine.ActionType> fromMask(int mask) {
+        EnumSet<Routine.ActionType> actions = EnumSet.noneOf(Routine.ActionType.class);
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            int ordinal = Integer.numberOfTrailingZeros(bits);
+            if (ordinal < ACTION_TYPES.length) {
+                actions.add(ACTION_TYPES[ordinal]);
+            }
+        }
+        return actions;
+    }
+    
+    /**
+     * Action type for a set bit of a mask, so callers can walk a mask without building a set.
+     */
+    public static Routine.ActionType actionAt(int ordinal) {
+        return ACTION_TYPES[ordinal];
+    }
+}
@@ -4,11 +4,19 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "routines")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "routines")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,16 +36,17 @@ public class Routine {
     // Day conditions
     @ElementCollection
     @Enumerated(EnumType.STRING)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "routine-days")
     private List<DayType> activeDays;
     
     // Context conditions
     @Enumerated(EnumType.STRING)
     private DayCategory dayCategory; // WORKDAY, WEEKEND, HOLIDAY, WFH
     
-    // Actions to perform
-    @ElementCollection
-    @Enumerated(EnumType.STRING)
-    private List<ActionType> actions;
+    // Actions to perform, kept in the routines row as a bitmask
+    @Convert(converter = ActionSetConverter.class)
+    @Column(name = "actions_mask")
+    private EnumSet<ActionType> actions = EnumSet.noneOf(ActionType.class);
     
     // Custom messages and content
     private String customMessage;
@@ -51,6 +60,40 @@ public class Routine {
     private boolean enabled = true;
     private int priority = 0;
     
+    // Display the routine belongs to; null for routines shared by all devices
+    private String deviceId;
+    
+    /**
+     * Accepts any collection of actions (lists from older API clients included); duplicates collapse.
+     */
+    public void setActions(Collection<ActionType> actions) {
+        this.actions = EnumSet.noneOf(ActionType.class);
+        if (actions != null) {
+            this.actions.addAll(actions);
+        }
+    }
+    
+    public Snapshot snapshot() {
+        EnumSet<ActionType> actionSet = actions != null ? EnumSet.copyOf(actions) : EnumSet.noneOf(ActionType.class);
+        return new Snapshot(id, name, startTime, endTime, dayCategory,
+                Collections.unmodifiableSet(actionSet), ActionSetConverter.toMask(actionSet),
+                customMessage, quoteSource, showTraffic, showWeather, showLocation, showTime, showDate, priority, deviceId);
+    }
+    
+    /**
+     * Immutable view of an enabled routine with what is needed to apply it. Actions come both as a set
+     * (in ActionType order) and as the bitmask they are stored as.
+     */
+    public record Snapshot(Long id, String name, LocalTime startTime, LocalTime endTime, DayCategory dayCategory,
+                           Set<ActionType> actions, int actionMask, String customMessage, String quoteSource,
+                           boolean showTraffic, boolean showWeather, boolean showLocation, boolean showTime,
+                           boolean showDate, int priority, String deviceId) {
+        
+        public boolean isVisibleTo(String deviceId) {
+            return this.deviceId == null || this.deviceId.equals(deviceId);
+        }
+    }
+    
     public enum DayType {
         MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY, SATURDAY, SUNDAY
     }
@@ -4,9 +4,13 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "system_settings")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "settings")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,6 +23,7 @@ public class SystemSettings {
     @Column(unique = true)
     private String settingKey;
     
+    @Lob
     @Column(columnDefinition = "TEXT")
     private String settingValue;
     
@@ -4,9 +4,13 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "user_preferences")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "preferences")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +21,7 @@ public class UserPreference {
     private Long id;
     
     @Column(unique = true)
-    private String userId = "default"; // Single user application
+    private String userId = "default"; // Device ID, see DeviceContext
     
     private String displayName;
     private String timezone = "UTC";
@@ -29,4 +33,22 @@ public class UserPreference {
     private String commuteMode = "bus"; // bus, car, walk, etc.
     private String workAddress;
     private String homeAddress;
+    
+    public Snapshot snapshot() {
+        return new Snapshot(id, userId, displayName, timezone, enableNotifications, theme, refreshInterval,
+                enableLocationServices, defaultLocation, commuteMode, workAddress, homeAddress);
+    }
+    
+    /**
+     * Immutable copy of a preference row, safe to share between requests.
+     */
+    public record Snapshot(Long id, String userId, String displayName, String timezone, boolean enableNotifications,
+                           String theme, int refreshInterval, boolean enableLocationServices, String defaultLocation,
+                           String commuteMode, String workAddress, String homeAddress) {
+        
+        public UserPreference toPreference() {
+            return new UserPreference(id, userId, displayName, timezone, enableNotifications, theme, refreshInterval,
+                    enableLocationServices, defaultLocation, commuteMode, workAddress, homeAddress);
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,35 @@
+package in.dpk.assistants.smart_screensaver.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Last known good payload of an external widget (weather, quote, location, traffic),
+ * used to warm the in-memory caches right after a restart.
+ */
+@Entity
+@Table(name = "widget_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WidgetSnapshot {
+    
+    // "<widget>:<cacheKey>", so each widget/key pair keeps exactly one row
+    @Id
+    private String id;
+    
+    private String widget;
+    private String cacheKey;
+    
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+    
+    private long fetchedAt;
+    
+    public static String idOf(String widget, String cacheKey) {
+        return widget + ":" + cacheKey;
+    }
+}
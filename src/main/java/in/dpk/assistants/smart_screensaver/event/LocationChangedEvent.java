@@ -0,0 +1,13 @@
+package in.dpk.assistants.smart_screensaver.event;
+
+/**
+ * Published by LocationService whenever a device moves to a different location key.
+ * Caches holding location-derived data (weather, traffic) listen for it and evict or prefetch;
+ * other devices may still be at the old location, see LocationService#isLocationInUse.
+ *
+ * @param deviceId       device whose location changed
+ * @param oldLocationKey key of the previous location, or null if none was known
+ * @param newLocationKey key of the new location, or null if it could not be resolved
+ */
+public record LocationChangedEvent(String deviceId, String oldLocationKey, String newLocationKey) {
+}
@@ -0,0 +1,34 @@
+package in.dpk.assistants.smart_screensaver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One build of the screensaver content for a display, from routine matching to the finished payload.
+ */
+@Name("in.dpk.screensaver.ContentAssembled")
+@Label("Content Assembled")
+@Category("Smart Screensaver")
+@Description("Screensaver content built for one request")
+@StackTrace(false)
+public class ContentAssembled extends Event {
+    
+    @Label("Device")
+    public String deviceId;
+    
+    @Label("Routines Matched")
+    @Description("Enabled routines whose time window and day category applied")
+    public int routinesMatched;
+    
+    @Label("Widgets")
+    @Description("Entries in the assembled content")
+    public int widgets;
+    
+    @Label("Cache Hits")
+    @Description("Widget cache lookups answered from the cache, fresh or stale")
+    public int cacheHits;
+}
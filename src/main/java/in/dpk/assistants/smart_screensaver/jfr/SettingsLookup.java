@@ -0,0 +1,27 @@
+package in.dpk.assistants.smart_screensaver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One read of a system setting. Lookups are normally answered by the query cache, so slow ones point
+ * at cache misses or database contention.
+ */
+@Name("in.dpk.screensaver.SettingsLookup")
+@Label("Settings Lookup")
+@Category("Smart Screensaver")
+@Description("Read of a system setting")
+@StackTrace(false)
+public class SettingsLookup extends Event {
+    
+    @Label("Key")
+    public String key;
+    
+    @Label("Found")
+    @Description("Whether a stored value was found; the caller's default is used otherwise")
+    public boolean found;
+}
@@ -0,0 +1,36 @@
+package in.dpk.assistants.smart_screensaver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One blocking call to an external API, tagged like the {@code screensaver.upstream.requests} timer.
+ */
+@Name("in.dpk.screensaver.UpstreamCall")
+@Label("Upstream Call")
+@Category("Smart Screensaver")
+@Description("Blocking call to an external API")
+@StackTrace(false)
+public class UpstreamCall extends Event {
+    
+    @Label("Provider")
+    public String provider;
+    
+    @Label("Status")
+    @Description("success, empty, timeout, http_error or error")
+    public String status;
+    
+    @Label("HTTP Status")
+    @Description("Response code of a failed HTTP call, 0 otherwise")
+    public int httpStatus;
+    
+    @Label("Bytes")
+    @Description("Size of the response body")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,36 @@
+package in.dpk.assistants.smart_screensaver.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many database statements each HTTP request ran, tagged with the matched route
+ * pattern (as in {@code http.server.requests}) or "UNKNOWN" for requests outside Spring MVC.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+    
+    private final QueryCounter queryCounter;
+    private final ScreensaverMetrics metrics;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        queryCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            metrics.recordDbQueries(pattern != null ? pattern.toString() : "UNKNOWN", queryCounter.stop());
+        }
+    }
+}
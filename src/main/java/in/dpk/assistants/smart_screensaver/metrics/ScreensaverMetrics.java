@@ -0,0 +1,145 @@
+package in.dpk.assistants.smart_screensaver.metrics;
+
+import in.dpk.assistants.smart_screensaver.cache.WidgetCache;
+import in.dpk.assistants.smart_screensaver.jfr.UpstreamCall;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Application meters, published on /actuator/metrics and /actuator/prometheus. Every meter is named
+ * {@code screensaver.*} and tagged from the same set: {@code provider} and {@code outcome} for upstream
+ * calls, {@code stage} for content assembly, {@code cache} and {@code result} for caches and
+ * {@code uri} for per-request database queries. Latency timers publish percentile histograms.
+ */
+@Component
+public class ScreensaverMetrics {
+    
+    public static final String UPSTREAM_REQUESTS = "screensaver.upstream.requests";
+    public static final String CONTENT_ASSEMBLY = "screensaver.content.assembly";
+    public static final String CACHE_REQUESTS = "screensaver.cache.requests";
+    public static final String CACHE_EVICTIONS = "screensaver.cache.evictions";
+    public static final String CACHE_SIZE = "screensaver.cache.size";
+    public static final String DB_QUERIES = "screensaver.db.queries";
+    
+    private final MeterRegistry registry;
+    private final Meter.MeterProvider<Timer> upstreamTimers;
+    private final Meter.MeterProvider<Timer> stageTimers;
+    private final Meter.MeterProvider<DistributionSummary> dbQueries;
+    
+    public ScreensaverMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.upstreamTimers = Timer.builder(UPSTREAM_REQUESTS)
+                .description("Calls to external APIs")
+                .publishPercentileHistogram()
+                .withRegistry(registry);
+        this.stageTimers = Timer.builder(CONTENT_ASSEMBLY)
+                .description("Time spent assembling screensaver content")
+                .publishPercentileHistogram()
+                .withRegistry(registry);
+        this.dbQueries = DistributionSummary.builder(DB_QUERIES)
+                .description("Hibernate statements executed per HTTP request")
+                .withRegistry(registry);
+    }
+    
+    /**
+     * Times a blocking upstream call and emits an {@link UpstreamCall} flight recorder event for it.
+     * The outcome is "success", "empty" when it returned null, or the kind of failure ("timeout",
+     * "http_error", "error"), which is rethrown.
+     */
+    public <T> T upstream(String provider, Supplier<T> call) {
+        UpstreamCall event = new UpstreamCall();
+        event.begin();
+        long start = System.nanoTime();
+        String outcome = "error";
+        T result = null;
+        RuntimeException failure = null;
+        try {
+            result = call.get();
+            outcome = result != null ? "success" : "empty";
+            return result;
+        } catch (RuntimeException e) {
+            failure = e;
+            outcome = failureOutcome(e);
+            throw e;
+        } finally {
+            recordUpstream(provider, outcome, System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.provider = provider;
+                event.status = outcome;
+                event.httpStatus = httpStatus(failure);
+                event.bytes = result instanceof String body ? body.getBytes(StandardCharsets.UTF_8).length : 0;
+                event.commit();
+            }
+        }
+    }
+    
+    public void recordUpstream(String provider, String outcome, long nanos) {
+        upstreamTimers.withTags("provider", provider, "outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Times one stage of building screensaver content.
+     */
+    public <T> T stage(String stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            stageTimers.withTags("stage", stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Publishes the hit, stale hit, miss and eviction counts and the size of a widget cache.
+     */
+    public void monitor(WidgetCache<?> cache) {
+        String name = cache.getName();
+        FunctionCounter.builder(CACHE_REQUESTS, cache, WidgetCache::getHits)
+                .tags("cache", name, "result", "hit").register(registry);
+        FunctionCounter.builder(CACHE_REQUESTS, cache, WidgetCache::getStaleHits)
+                .tags("cache", name, "result", "stale").register(registry);
+        FunctionCounter.builder(CACHE_REQUESTS, cache, WidgetCache::getMisses)
+                .tags("cache", name, "result", "miss").register(registry);
+        FunctionCounter.builder(CACHE_EVICTIONS, cache, WidgetCache::getEvictions)
+                .tag("cache", name).register(registry);
+        Gauge.builder(CACHE_SIZE, cache, WidgetCache::size)
+                .tag("cache", name).register(registry);
+    }
+    
+    public void recordDbQueries(String uri, int queries) {
+        dbQueries.withTags("uri", uri).record(queries);
+    }
+    
+    private static int httpStatus(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientResponseException response) {
+                return response.getStatusCode().value();
+            }
+        }
+        return 0;
+    }
+    
+    private static String failureOutcome(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException) {
+                return "timeout";
+            }
+            if (cause instanceof WebClientResponseException) {
+                return "http_error";
+            }
+        }
+        return "error";
+    }
+}
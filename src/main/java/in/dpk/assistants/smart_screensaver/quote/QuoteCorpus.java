@@ -0,0 +1,256 @@
+package in.dpk.assistants.smart_screensaver.quote;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Local quote corpus used when the quote APIs are disabled or unreachable, or when a routine asks for it.
+ * <p>
+ * The bundled {@code quotes.tsv} and an optional user file (lines of {@code text<TAB>author<TAB>category})
+ * are streamed into a string table on disk that is memory-mapped read-only. Only the record offsets and
+ * a category index of record numbers live on the heap; a quote is decoded when it is selected.
+ */
+@Component
+@Slf4j
+public class QuoteCorpus {
+    
+    private static final String BUNDLED_CORPUS = "/quotes.tsv";
+    private static final String DEFAULT_CATEGORY = "Inspiration";
+    private static final Map<String, Object> DEFAULT_QUOTE = Map.of(
+            "text", "The only way to do great work is to love what you do.",
+            "author", "Steve Jobs",
+            "category", DEFAULT_CATEGORY);
+    
+    private final ByteBuffer table;
+    private final int[] offsets;
+    private final Map<String, int[]> categoryIndex;
+    
+    public QuoteCorpus(@Value("${app.quote.corpus-file:}") String corpusFile,
+                       @Value("${app.quote.corpus-table:./data/quote-corpus.bin}") String tableFile) {
+        Builder builder = new Builder();
+        ByteBuffer mapped = ByteBuffer.allocate(0);
+        try {
+            Path tablePath = Paths.get(tableFile).toAbsolutePath();
+            // Indexing the sources is cheap; the table on disk is only replaced when its content would change,
+            // so restarts (and several application contexts sharing the file) leave a mapped table alone
+            CRC32 checksum = new CRC32();
+            readSources(corpusFile, builder, new CheckedOutputStream(OutputStream.nullOutputStream(), checksum));
+            if (!tableMatches(tablePath, builder.position, checksum.getValue())) {
+                writeTable(tablePath, corpusFile);
+            }
+            try (FileChannel channel = FileChannel.open(tablePath, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        } catch (IOException e) {
+            log.error("Could not build quote corpus: {}", e.getMessage());
+            builder = new Builder();
+        }
+        this.table = mapped;
+        this.offsets = builder.offsets();
+        this.categoryIndex = builder.categoryIndex();
+        log.info("Loaded quote corpus with {} quotes in {} categories ({} bytes)",
+                size(), categoryIndex.size(), table.capacity());
+    }
+    
+    private static void readSources(String corpusFile, Builder builder, OutputStream out) throws IOException {
+        try (InputStream bundled = QuoteCorpus.class.getResourceAsStream(BUNDLED_CORPUS)) {
+            if (bundled != null) {
+                builder.append(bundled, out);
+            }
+        }
+        if (corpusFile != null && !corpusFile.isBlank()) {
+            try (InputStream user = Files.newInputStream(Paths.get(corpusFile))) {
+                builder.append(user, out);
+            } catch (IOException e) {
+                log.warn("Could not read quote corpus file {}: {}", corpusFile, e.getMessage());
+            }
+        }
+    }
+    
+    private static boolean tableMatches(Path tablePath, long size, long checksum) throws IOException {
+        if (!Files.isRegularFile(tablePath) || Files.size(tablePath) != size) {
+            return false;
+        }
+        CRC32 existing = new CRC32();
+        try (InputStream in = new CheckedInputStream(Files.newInputStream(tablePath), existing)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return existing.getValue() == checksum;
+    }
+    
+    /**
+     * Writes the table next to its final path and moves it into place, so a table mapped by another
+     * instance is never truncated underneath it.
+     */
+    private static void writeTable(Path tablePath, String corpusFile) throws IOException {
+        Files.createDirectories(tablePath.getParent());
+        Path tmp = Files.createTempFile(tablePath.getParent(), tablePath.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                readSources(corpusFile, new Builder(), out);
+            }
+            Files.move(tmp, tablePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Rebuilt quote corpus table {}", tablePath);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+    
+    public int size() {
+        return offsets.length - 1;
+    }
+    
+    public Set<String> getCategories() {
+        return Collections.unmodifiableSet(categoryIndex.keySet());
+    }
+    
+    public Map<String, Object> random() {
+        return random(null);
+    }
+    
+    /**
+     * Random quote, optionally restricted to a category (case-insensitive). Unknown categories fall back
+     * to the whole corpus.
+     */
+    public Map<String, Object> random(String category) {
+        int[] ids = idsFor(category);
+        int count = ids != null ? ids.length : size();
+        if (count == 0) {
+            return defaultQuote();
+        }
+        int pick = ThreadLocalRandom.current().nextInt(count);
+        return quote(ids != null ? ids[pick] : pick);
+    }
+    
+    public Map<String, Object> forDate(LocalDate day) {
+        return forDate(day, null);
+    }
+    
+    /**
+     * The same quote for a given day on every display and across restarts, optionally restricted to a category.
+     */
+    public Map<String, Object> forDate(LocalDate day, String category) {
+        int[] ids = idsFor(category);
+        int count = ids != null ? ids.length : size();
+        if (count == 0) {
+            return defaultQuote();
+        }
+        // Spread consecutive days across the corpus, files are often grouped by author or category
+        int pick = Math.floorMod(day.toEpochDay() * 2654435761L, count);
+        return quote(ids != null ? ids[pick] : pick);
+    }
+    
+    private int[] idsFor(String category) {
+        if (category == null || category.isBlank()) {
+            return null;
+        }
+        return categoryIndex.get(category.trim().toLowerCase(Locale.ROOT));
+    }
+    
+    private Map<String, Object> quote(int id) {
+        int start = offsets[id];
+        byte[] bytes = new byte[offsets[id + 1] - start];
+        table.get(start, bytes);
+        String[] fields = new String(bytes, StandardCharsets.UTF_8).split("\t", -1);
+        
+        Map<String, Object> quote = new HashMap<>();
+        quote.put("text", fields[0]);
+        quote.put("author", fields[1]);
+        quote.put("category", fields[2]);
+        quote.put("source", "corpus");
+        return quote;
+    }
+    
+    private Map<String, Object> defaultQuote() {
+        Map<String, Object> quote = new HashMap<>(DEFAULT_QUOTE);
+        quote.put("source", "corpus");
+        return quote;
+    }
+    
+    /**
+     * Streams TSV input into the string table, recording offsets and category membership as it goes.
+     */
+    private static class Builder {
+        private int[] offsets = new int[1024];
+        private int count;
+        private int position;
+        private final Map<String, int[]> categories = new HashMap<>();
+        private final Map<String, Integer> categorySizes = new HashMap<>();
+        
+        void append(InputStream input, OutputStream out) throws IOException {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                if (fields.length < 2 || fields[0].isBlank()) {
+                    continue;
+                }
+                String category = fields.length > 2 && !fields[2].isBlank() ? fields[2].trim() : DEFAULT_CATEGORY;
+                byte[] record = (fields[0].trim() + "\t" + fields[1].trim() + "\t" + category)
+                        .getBytes(StandardCharsets.UTF_8);
+                
+                if (count + 1 == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[count] = position;
+                out.write(record);
+                position += record.length;
+                addToCategory(category.toLowerCase(Locale.ROOT), count);
+                count++;
+            }
+        }
+        
+        private void addToCategory(String category, int id) {
+            int size = categorySizes.getOrDefault(category, 0);
+            int[] ids = categories.computeIfAbsent(category, c -> new int[16]);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                categories.put(category, ids);
+            }
+            ids[size] = id;
+            categorySizes.put(category, size + 1);
+        }
+        
+        int[] offsets() {
+            int[] result = Arrays.copyOf(offsets, count + 1);
+            result[count] = position;
+            return result;
+        }
+        
+        Map<String, int[]> categoryIndex() {
+            Map<String, int[]> index = new HashMap<>();
+            categories.forEach((category, ids) -> index.put(category, Arrays.copyOf(ids, categorySizes.get(category))));
+            return index;
+        }
+    }
+}
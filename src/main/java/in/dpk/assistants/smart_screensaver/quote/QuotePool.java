@@ -0,0 +1,101 @@
+package in.dpk.assistants.smart_screensaver.quote;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded ring buffer of prefetched quotes for routines that rotate quotes more often than daily.
+ * Quotes are deduplicated by a hash of their normalized text, both against the pool and against the
+ * most recently served quotes, so a rotation does not repeat itself within one pool's worth of quotes.
+ */
+public class QuotePool {
+    
+    private final Map<String, Object>[] buffer;
+    private final int[] servedHashes;
+    private final Set<Integer> knownHashes = new HashSet<>();
+    private int head;
+    private int size;
+    private int servedNext;
+    private int servedCount;
+    
+    @SuppressWarnings("unchecked")
+    public QuotePool(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Quote pool capacity must be positive");
+        }
+        this.buffer = new Map[capacity];
+        this.servedHashes = new int[capacity];
+    }
+    
+    /**
+     * Adds a quote unless the pool is full, the quote has no text, or an equivalent quote is pooled
+     * or was served recently.
+     */
+    public synchronized boolean offer(Map<String, Object> quote) {
+        if (quote == null || quote.get("text") == null || size == buffer.length) {
+            return false;
+        }
+        String text = quote.get("text").toString();
+        if (text.isBlank() || !knownHashes.add(normalizedHash(text))) {
+            return false;
+        }
+        buffer[(head + size) % buffer.length] = quote;
+        size++;
+        return true;
+    }
+    
+    /**
+     * Removes and returns the oldest pooled quote, or null if the pool is empty.
+     */
+    public synchronized Map<String, Object> poll() {
+        if (size == 0) {
+            return null;
+        }
+        Map<String, Object> quote = buffer[head];
+        buffer[head] = null;
+        head = (head + 1) % buffer.length;
+        size--;
+        rememberServed(normalizedHash(quote.get("text").toString()));
+        return quote;
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    public int capacity() {
+        return buffer.length;
+    }
+    
+    /**
+     * Hash of the quote text ignoring case, punctuation and whitespace, so the same quote from
+     * different providers is recognised as a duplicate.
+     */
+    public static int normalizedHash(String text) {
+        int hash = 0;
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                hash = 31 * hash + c;
+            }
+        }
+        return hash;
+    }
+    
+    private void rememberServed(int hash) {
+        // The hash stays known until it falls out of the served window
+        if (servedCount == servedHashes.length) {
+            int oldest = servedHashes[servedNext];
+            if (oldest != hash) {
+                knownHashes.remove(oldest);
+            }
+        } else {
+            servedCount++;
+        }
+        servedHashes[servedNext] = hash;
+        servedNext = (servedNext + 1) % servedHashes.length;
+    }
+}
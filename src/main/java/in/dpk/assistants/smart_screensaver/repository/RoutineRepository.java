@@ -1,13 +1,29 @@
 package in.dpk.assistants.smart_screensaver.repository;
 
 import in.dpk.assistants.smart_screensaver.entity.Routine;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RoutineRepository extends JpaRepository<Routine, Long> {
-    @Query("SELECT r FROM Routine r LEFT JOIN FETCH r.actions WHERE r.enabled = true ORDER BY r.priority DESC")
-    List<Routine> findByEnabledTrueOrderByPriorityDescWithActions();
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "routine-queries")
+    })
+    List<Routine> findByEnabledTrueOrderByPriorityDesc();
+    
+    List<Routine> findByDeviceIdIsNullOrDeviceId(String deviceId);
+    
+    /**
+     * A routine visible to the device: one of its own or a shared one.
+     */
+    @Query("SELECT r FROM Routine r WHERE r.id = :id AND (r.deviceId IS NULL OR r.deviceId = :deviceId)")
+    Optional<Routine> findByIdForDevice(@Param("id") Long id, @Param("deviceId") String deviceId);
 } 
\ No newline at end of file
@@ -1,13 +1,17 @@
 package in.dpk.assistants.smart_screensaver.repository;
 
 import in.dpk.assistants.smart_screensaver.entity.SystemSettings;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface SystemSettingsRepository extends JpaRepository<SystemSettings, Long> {
@@ -23,6 +27,13 @@ public interface SystemSettingsRepository extends JpaRepository<SystemSettings,
     
     boolean existsBySettingKey(String settingKey);
     
+    @Query("SELECT s.settingKey FROM SystemSettings s")
+    Set<String> findAllSettingKeys();
+    
     @Query("SELECT s.settingValue FROM SystemSettings s WHERE s.settingKey = :key AND s.enabled = true")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "settings-queries")
+    })
     Optional<String> findValueByKey(@Param("key") String key);
 } 
\ No newline at end of file
@@ -1,11 +1,18 @@
 package in.dpk.assistants.smart_screensaver.repository;
 
 import in.dpk.assistants.smart_screensaver.entity.UserPreference;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
 public interface UserPreferenceRepository extends JpaRepository<UserPreference, Long> {
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "preference-queries")
+    })
     Optional<UserPreference> findByUserId(String userId);
 } 
\ No newline at end of file
@@ -0,0 +1,13 @@
+package in.dpk.assistants.smart_screensaver.repository;
+
+import in.dpk.assistants.smart_screensaver.entity.WidgetSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WidgetSnapshotRepository extends JpaRepository<WidgetSnapshot, String> {
+    
+    List<WidgetSnapshot> findByWidget(String widget);
+}
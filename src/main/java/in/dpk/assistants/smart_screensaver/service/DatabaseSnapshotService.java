@@ -0,0 +1,93 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps an in-memory H2 database (the {@code memory} profile) across restarts: the database is
+ * written to a gzipped SQL script on a schedule and at shutdown, and the script is replayed at boot
+ * before Flyway runs, so migrations newer than the snapshot still apply.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.snapshot-file")
+@Slf4j
+public class DatabaseSnapshotService implements FlywayMigrationStrategy {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Path snapshotFile;
+    private final ObjectProvider<WidgetSnapshotService> widgetSnapshotService;
+    
+    public DatabaseSnapshotService(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.storage.snapshot-file}") String snapshotFile,
+                                   ObjectProvider<WidgetSnapshotService> widgetSnapshotService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotFile = Path.of(snapshotFile).toAbsolutePath();
+        this.widgetSnapshotService = widgetSnapshotService;
+    }
+    
+    @Override
+    public void migrate(Flyway flyway) {
+        restore();
+        flyway.migrate();
+    }
+    
+    /**
+     * Replays the last snapshot into the (still empty) database. Returns false if there is none.
+     */
+    public boolean restore() {
+        if (!Files.isRegularFile(snapshotFile)) {
+            log.info("No database snapshot at {}, starting empty", snapshotFile);
+            return false;
+        }
+        jdbcTemplate.execute("RUNSCRIPT FROM " + literal(snapshotFile) + " COMPRESSION GZIP");
+        log.info("Restored database from snapshot {}", snapshotFile);
+        return true;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.storage.snapshot-interval:PT5M}",
+            initialDelayString = "${app.storage.snapshot-interval:PT5M}")
+    public void snapshot() {
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            // Written next to the old snapshot and moved over it, so a crash mid-write keeps the old one
+            Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            jdbcTemplate.execute("SCRIPT TO " + literal(tmp) + " COMPRESSION GZIP");
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote database snapshot {}", snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write database snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        // Pending widget snapshots would otherwise be flushed after the final script is written. The service
+        // is usually destroyed (and so already flushed) first, and looking it up then fails; the script is
+        // written either way.
+        try {
+            widgetSnapshotService.ifAvailable(WidgetSnapshotService::flush);
+        } catch (BeansException e) {
+            log.debug("Widget snapshots already flushed at shutdown: {}", e.getMessage());
+        } finally {
+            snapshot();
+        }
+    }
+    
+    private static String literal(Path path) {
+        return "'" + path.toString().replace("'", "''") + "'";
+    }
+}
@@ -6,32 +6,95 @@ import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import in.dpk.assistants.smart_screensaver.cache.WidgetCache;
 import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import in.dpk.assistants.smart_screensaver.quote.QuoteCorpus;
+import in.dpk.assistants.smart_screensaver.quote.QuotePool;
+import in.dpk.assistants.smart_screensaver.timeseries.TimeSeriesStore;
+import in.dpk.assistants.smart_screensaver.traffic.TrafficModel;
+import in.dpk.assistants.smart_screensaver.weather.HourlyForecast;
+import in.dpk.assistants.smart_screensaver.weather.TemperatureFormatter;
+import in.dpk.assistants.smart_screensaver.weather.WeatherCodes;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Duration;
-import java.util.Random;
+import java.time.Instant;
+import java.time.ZonedDateTime;
 
 @Service
 @Slf4j
 public class ExternalDataService {
     
+    private static final long QUOTE_PREFETCH_MINUTES = 15;
+    
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
     private final ExternalApiConfig apiConfig;
     private final LocationService locationService;
     private final SystemSettingsService systemSettingsService;
-    private final Random random = new Random();
+    private final WeatherForecastService weatherForecastService;
+    private final UserService userService;
+    private final QuoteCorpus quoteCorpus;
+    private final TrafficService trafficService;
+    private final TransitService transitService;
+    private final TimeSeriesStore timeSeriesStore;
+    private final ScreensaverMetrics metrics;
+    private final WidgetSnapshotService widgetSnapshotService;
+    private final WidgetCache<Map<String, Object>> quoteCache;
+    private final QuotePool quotePool;
+    private final AtomicBoolean replenishingQuotePool = new AtomicBoolean();
+    // Quote API calls block on several upstreams in a row, so they stay off the scheduler thread
+    private final ExecutorService quoteExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "quote-fetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean prefetchingQuote = new AtomicBoolean();
     
     public ExternalDataService(WebClient webClient, ExternalApiConfig apiConfig, 
-                             LocationService locationService, SystemSettingsService systemSettingsService) {
+                             LocationService locationService, SystemSettingsService systemSettingsService,
+                             WeatherForecastService weatherForecastService, WidgetSnapshotService widgetSnapshotService,
+                             UserService userService, QuoteCorpus quoteCorpus, TrafficService trafficService,
+                             TransitService transitService, TimeSeriesStore timeSeriesStore,
+                             ScreensaverMetrics metrics) {
         this.webClient = webClient;
         this.apiConfig = apiConfig;
         this.locationService = locationService;
         this.systemSettingsService = systemSettingsService;
+        this.weatherForecastService = weatherForecastService;
+        this.userService = userService;
+        this.quoteCorpus = quoteCorpus;
+        this.trafficService = trafficService;
+        this.transitService = transitService;
+        this.timeSeriesStore = timeSeriesStore;
+        this.metrics = metrics;
+        this.widgetSnapshotService = widgetSnapshotService;
         this.objectMapper = new ObjectMapper();
+        // Keyed by calendar day; an entry only has to outlive its day
+        this.quoteCache = new WidgetCache<>("quote", Duration.ofDays(2));
+        this.quotePool = new QuotePool(apiConfig.getQuotePoolSize());
+        
+        // Persist every successful load and warm the cache from the last known good snapshots,
+        // dropping the days that are already over
+        quoteCache.onLoad((key, value) -> widgetSnapshotService.save(quoteCache.getName(), key, value));
+        widgetSnapshotService.whenLoaded(quoteCache.getName(), snapshots -> {
+            widgetSnapshotService.restore(quoteCache, snapshots);
+            pruneQuotesBefore(LocalDate.now(userService.getUserZone()));
+        });
+        metrics.monitor(quoteCache);
     }
     
     public Map<String, Object> getWeatherInfo() {
@@ -49,40 +112,25 @@ public class ExternalDataService {
                 return createEmptyWeatherData();
             }
             
-            double latitude = Double.parseDouble(location.get("latitude").toString());
-            double longitude = Double.parseDouble(location.get("longitude").toString());
-            
-            // Get weather API URL from system settings
-            String weatherApiUrl = systemSettingsService.getApiUrl("weather");
-            if (weatherApiUrl == null || weatherApiUrl.trim().isEmpty()) {
-                log.warn("Weather API URL not configured, using fallback data");
-                return createEmptyWeatherData();
-            }
-            
-            // Fetch weather data from configured API
-            String weatherUrl = String.format("%s?latitude=%.4f&longitude=%.4f&current=temperature_2m,relative_humidity_2m,weather_code&timezone=auto",
-                    weatherApiUrl, latitude, longitude);
-            
-            String response = webClient.get()
-                    .uri(weatherUrl)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(systemSettingsService.getApiTimeout()))
-                    .block();
+            String locationKey = LocationService.locationKey(location);
+            HourlyForecast forecast = weatherForecastService.getForecast(locationKey);
             
-            if (response != null) {
-                JsonNode weatherData = objectMapper.readTree(response);
-                JsonNode current = weatherData.get("current");
-                
+            if (forecast != null) {
+                // Answer "current" weather from the prefetched hourly series
+                long now = Instant.now().getEpochSecond();
+                boolean stale = !forecast.covers(now);
                 Map<String, Object> weather = new HashMap<>();
-                weather.put("temperature", formatTemperature(current.get("temperature_2m").asDouble()));
-                weather.put("condition", getWeatherCondition(current.get("weather_code").asInt()));
-                weather.put("humidity", current.get("relative_humidity_2m").asInt() + "%");
+                // Hours the upstream left without a value are shown blank, like missing weather data
+                float temperature = forecast.temperatureAt(now);
+                int humidity = forecast.humidityAt(now);
+                weather.put("temperature", Float.isNaN(temperature) ? "" : TemperatureFormatter.format(temperature));
+                weather.put("condition", WeatherCodes.label(forecast.weatherCodeAt(now)));
+                weather.put("humidity", humidity >= 0 ? humidity + "%" : "");
                 weather.put("location", location.get("city"));
                 weather.put("source", location.get("source"));
                 
-                log.info("Weather data fetched successfully: {}", weather);
-                return weather;
+                log.debug("Weather data interpolated for {}: {}", locationKey, weather);
+                return stale ? WidgetCache.markStale(weather) : weather;
             }
         } catch (Exception e) {
             log.error("Error fetching weather data: {}", e.getMessage());
@@ -106,39 +154,7 @@ public class ExternalDataService {
         try {
             // Get current location
             Map<String, Object> location = locationService.getLocationInfo();
-            String city = location != null ? location.get("city").toString() : "";
-            
-            // For now, provide traffic estimates based on time of day
-            // In a real implementation, you would integrate with Google Maps API or similar
-            Map<String, Object> traffic = new HashMap<>();
-            LocalDateTime now = LocalDateTime.now();
-            int hour = now.getHour();
-            
-            if (hour >= 7 && hour <= 9) {
-                // Morning rush hour
-                traffic.put("status", "Heavy");
-                traffic.put("travelTime", "35 min");
-                traffic.put("distance", "8.5 km");
-                traffic.put("message", "Morning rush hour traffic");
-            } else if (hour >= 17 && hour <= 19) {
-                // Evening rush hour
-                traffic.put("status", "Heavy");
-                traffic.put("travelTime", "40 min");
-                traffic.put("distance", "8.5 km");
-                traffic.put("message", "Evening rush hour traffic");
-            } else {
-                // Normal traffic
-                traffic.put("status", "Moderate");
-                traffic.put("travelTime", "20 min");
-                traffic.put("distance", "8.5 km");
-                traffic.put("message", "Normal traffic conditions");
-            }
-            
-            traffic.put("location", city);
-            traffic.put("source", location != null ? location.get("source") : "");
-            log.info("Traffic data generated for {}: {}", city, traffic);
-            return traffic;
-            
+            return buildTrafficInfo(location);
         } catch (Exception e) {
             log.error("Error generating traffic data: {}", e.getMessage());
         }
@@ -151,37 +167,192 @@ public class ExternalDataService {
         return createEmptyTrafficData();
     }
     
+    private Map<String, Object> buildTrafficInfo(Map<String, Object> location) {
+        String city = location != null ? location.get("city").toString() : "";
+        
+        // Estimates come from the route's time-bucketed model, which traffic providers feed with samples
+        ZonedDateTime now = ZonedDateTime.now(userService.getUserZone());
+        TrafficModel model = trafficService.getModel(trafficService.getCurrentRouteKey());
+        DayOfWeek day = now.getDayOfWeek();
+        TrafficModel.Level level = model.level(day, now.getHour(), now.getMinute());
+        
+        Map<String, Object> traffic = new HashMap<>();
+        traffic.put("travelTime", Math.round(model.estimateMinutes(day, now.getHour(), now.getMinute())) + " min");
+        traffic.put("distance", String.format(Locale.ROOT, "%.1f km", model.getDistanceKm()));
+        if (level == TrafficModel.Level.HEAVY) {
+            traffic.put("status", "Heavy");
+            traffic.put("message", now.getHour() < 12 ? "Morning rush hour traffic" : "Evening rush hour traffic");
+        } else if (level == TrafficModel.Level.MODERATE) {
+            traffic.put("status", "Moderate");
+            traffic.put("message", "Normal traffic conditions");
+        } else {
+            traffic.put("status", "Light");
+            traffic.put("message", "Light traffic");
+        }
+        
+        traffic.put("location", city);
+        traffic.put("source", location != null ? location.get("source") : "");
+        log.debug("Traffic data generated for {}: {}", city, traffic);
+        return traffic;
+    }
+    
+    /**
+     * Quote of the day for the user's calendar day. It is fetched once per day (or prefetched shortly
+     * before midnight), memoized and persisted, so reads never wait on a quote API.
+     */
     public Map<String, Object> getQuoteOfTheDay() {
+        LocalDate today = LocalDate.now(userService.getUserZone());
+        
         // Check if quote API is enabled
         if (!systemSettingsService.isApiEnabled("quote")) {
             log.info("Quote API is disabled, using fallback quotes");
-            return getFallbackQuote();
+            return getFallbackQuote(today);
         }
         
+        WidgetCache.Lookup<Map<String, Object>> quote = quoteCache.getOrRefresh(today.toString(),
+                () -> fetchDailyQuote(today));
+        return new HashMap<>(quote.value());
+    }
+    
+    /**
+     * Next quote for routines that rotate quotes, taken from the prefetched pool without any upstream
+     * call. Falls back to the local corpus while the pool is empty.
+     */
+    public Map<String, Object> getRotatingQuote() {
+        Map<String, Object> quote = quotePool.poll();
+        if (quotePool.size() < apiConfig.getQuotePoolLowWater()) {
+            replenishQuotePool();
+        }
+        if (quote != null) {
+            return new HashMap<>(quote);
+        }
+        // Pool drained or quote APIs disabled: rotate through the local corpus instead
+        return quoteCorpus.random();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.external.quote-pool-refill-interval:PT5M}")
+    public void replenishQuotePool() {
+        if (!systemSettingsService.isApiEnabled("quote") || !replenishingQuotePool.compareAndSet(false, true)) {
+            return;
+        }
+        quoteExecutor.execute(() -> {
+            try {
+                fillQuotePool();
+            } catch (Exception e) {
+                log.warn("Quote pool replenishment failed: {}", e.getMessage());
+            } finally {
+                replenishingQuotePool.set(false);
+            }
+        });
+    }
+    
+    private void fillQuotePool() {
+        // A batch can be mostly duplicates, so give up after a few rounds instead of hammering the APIs
+        for (int round = 0; round < 3 && quotePool.size() < apiConfig.getQuotePoolLowWater(); round++) {
+            int added = 0;
+            for (Map<String, Object> quote : fetchQuoteBatch(quotePool.capacity() - quotePool.size())) {
+                if (quotePool.offer(quote)) {
+                    added++;
+                }
+            }
+            log.info("Added {} quotes to the pool ({}/{})", added, quotePool.size(), quotePool.capacity());
+            if (added == 0) {
+                break;
+            }
+        }
+    }
+    
+    @Scheduled(cron = "0 */5 * * * *")
+    public void prefetchQuoteOfTheDay() {
+        if (!systemSettingsService.isApiEnabled("quote") || !prefetchingQuote.compareAndSet(false, true)) {
+            return;
+        }
+        quoteExecutor.execute(() -> {
+            try {
+                prefetchQuoteOfTheDay(ZonedDateTime.now(userService.getUserZone()));
+            } catch (Exception e) {
+                log.warn("Quote of the day prefetch failed: {}", e.getMessage());
+            } finally {
+                prefetchingQuote.set(false);
+            }
+        });
+    }
+    
+    void prefetchQuoteOfTheDay(ZonedDateTime now) {
+        LocalDate today = now.toLocalDate();
+        pruneQuotesBefore(today);
+        
+        // Today's quote fell back to a local one earlier; try the APIs again
+        Map<String, Object> current = quoteCache.get(today.toString());
+        if (current != null && "corpus".equals(current.get("source"))) {
+            Map<String, Object> fetched = fetchQuote();
+            if (fetched != null) {
+                fetched.put("date", today.toString());
+                // Swapped in one step, so a concurrent reader gets one of the two quotes and never fetches a third
+                quoteCache.put(today.toString(), fetched);
+            }
+        }
+        
+        LocalDate tomorrow = today.plusDays(1);
+        long minutesToMidnight = Duration.between(now, tomorrow.atStartOfDay(now.getZone())).toMinutes();
+        if (minutesToMidnight <= QUOTE_PREFETCH_MINUTES && quoteCache.get(tomorrow.toString()) == null) {
+            log.info("Prefetching quote of the day for {}", tomorrow);
+            quoteCache.getOrRefresh(tomorrow.toString(), () -> fetchDailyQuote(tomorrow));
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        quoteExecutor.shutdownNow();
+    }
+    
+    private void pruneQuotesBefore(LocalDate today) {
+        // ISO dates sort like the days they name
+        String day = today.toString();
+        if (quoteCache.evictIf(key -> key.compareTo(day) < 0) > 0) {
+            widgetSnapshotService.prune(quoteCache.getName(), key -> key.compareTo(day) < 0);
+        }
+    }
+    
+    private Map<String, Object> fetchDailyQuote(LocalDate day) {
+        Map<String, Object> quote = fetchQuote();
+        if (quote == null) {
+            // If all APIs fail, use a local corpus quote; the prefetch task retries the APIs later
+            log.warn("All quote APIs failed, using fallback quote for {}", day);
+            quote = getFallbackQuote(day);
+        }
+        quote.put("date", day.toString());
+        return quote;
+    }
+    
+    private Map<String, Object> fetchQuote() {
         // Get quote API URL from system settings
         String quoteApiUrl = systemSettingsService.getApiUrl("quote");
         if (quoteApiUrl == null || quoteApiUrl.trim().isEmpty()) {
             log.warn("Quote API URL not configured, using fallback quotes");
-            return getFallbackQuote();
+            return null;
         }
         
         // Use more reliable quote APIs with better error handling
         QuoteApi[] quoteApis = {
             new QuoteApi(quoteApiUrl, "quotable"),
-            new QuoteApi("https://zenquotes.io/api/random", "zenquotes"),
-            new QuoteApi("https://api.goprogram.ai/inspiration", "goprogram")
+            new QuoteApi(apiConfig.getZenquotesApiUrl() + "/random", "zenquotes"),
+            new QuoteApi(apiConfig.getGoprogramApiUrl(), "goprogram")
         };
         
         for (QuoteApi api : quoteApis) {
             try {
                 log.debug("Attempting to fetch quote from: {}", api.url);
                 
-                String response = webClient.get()
+                long started = System.nanoTime();
+                String response = metrics.upstream(api.type, () -> webClient.get()
                         .uri(api.url)
                         .retrieve()
                         .bodyToMono(String.class)
                         .timeout(Duration.ofSeconds(systemSettingsService.getApiTimeout()))
-                        .block();
+                        .block());
+                timeSeriesStore.append(TimeSeriesStore.API_LATENCY, api.type, Instant.now().getEpochSecond(),
+                        (System.nanoTime() - started) / 1_000_000.0);
                 
                 if (response != null && !response.trim().isEmpty()) {
                     JsonNode quoteData = objectMapper.readTree(response);
@@ -189,6 +360,7 @@ public class ExternalDataService {
                     
                     if (quote != null && quote.get("text") != null && !quote.get("text").toString().isEmpty()) {
                         log.info("Quote fetched successfully from {}: {}", api.url, quote.get("text"));
+                        quote.put("source", api.type);
                         return quote;
                     }
                 }
@@ -199,12 +371,71 @@ public class ExternalDataService {
             }
         }
         
-        // If all APIs fail, return a fallback quote
-        log.warn("All quote APIs failed, using fallback quote");
-        return getFallbackQuote();
+        return null;
+    }
+    
+    /**
+     * Fetches up to {@code limit} quotes, using the providers' multi-quote endpoints where they have one
+     * and a single quote otherwise.
+     */
+    private List<Map<String, Object>> fetchQuoteBatch(int limit) {
+        List<Map<String, Object>> quotes = new ArrayList<>();
+        if (limit <= 0) {
+            return quotes;
+        }
+        
+        List<QuoteApi> batchApis = new ArrayList<>();
+        String quoteApiUrl = systemSettingsService.getApiUrl("quote");
+        if (quoteApiUrl != null && quoteApiUrl.endsWith("/random")) {
+            // quotable serves batches from /quotes/random next to its /random endpoint
+            String base = quoteApiUrl.substring(0, quoteApiUrl.length() - "/random".length());
+            batchApis.add(new QuoteApi(base + "/quotes/random?limit=" + Math.min(limit, 50), "quotable"));
+        }
+        batchApis.add(new QuoteApi(apiConfig.getZenquotesApiUrl() + "/quotes", "zenquotes"));
+        
+        for (QuoteApi api : batchApis) {
+            try {
+                log.debug("Attempting to fetch quote batch from: {}", api.url);
+                
+                String response = metrics.upstream(api.type, () -> webClient.get()
+                        .uri(api.url)
+                        .retrieve()
+                        .bodyToMono(String.class)
+                        .timeout(Duration.ofSeconds(systemSettingsService.getApiTimeout()))
+                        .block());
+                
+                if (response != null && !response.trim().isEmpty()) {
+                    JsonNode quoteData = objectMapper.readTree(response);
+                    if (quoteData.isArray()) {
+                        for (JsonNode node : quoteData) {
+                            Map<String, Object> quote = parseQuoteResponse(node, api.type);
+                            if (quote != null && quote.get("text") != null && quotes.size() < limit) {
+                                quote.put("source", api.type);
+                                quotes.add(quote);
+                            }
+                        }
+                    }
+                }
+                if (!quotes.isEmpty()) {
+                    log.info("Fetched {} quotes from {}", quotes.size(), api.url);
+                    return quotes;
+                }
+            } catch (WebClientResponseException e) {
+                log.warn("HTTP error fetching quote batch from {}: {} - {}", api.url, e.getStatusCode(), e.getMessage());
+            } catch (Exception e) {
+                log.warn("Failed to fetch quote batch from {}: {}", api.url, e.getMessage());
+            }
+        }
+        
+        // No batch endpoint answered, fall back to the single quote providers
+        Map<String, Object> quote = fetchQuote();
+        if (quote != null) {
+            quotes.add(quote);
+        }
+        return quotes;
     }
     
-    private Map<String, Object> parseQuoteResponse(JsonNode quoteData, String apiType) {
+    static Map<String, Object> parseQuoteResponse(JsonNode quoteData, String apiType) {
         Map<String, Object> quote = new HashMap<>();
         
         try {
@@ -219,8 +450,9 @@ public class ExternalDataService {
                     break;
                     
                 case "zenquotes":
-                    if (quoteData.isArray() && quoteData.size() > 0) {
-                        JsonNode firstQuote = quoteData.get(0);
+                    // Single quotes come wrapped in an array, batch entries are parsed one by one
+                    if (quoteData.isObject() || quoteData.size() > 0) {
+                        JsonNode firstQuote = quoteData.isArray() ? quoteData.get(0) : quoteData;
                         if (firstQuote.has("q") && firstQuote.has("a")) {
                             quote.put("text", firstQuote.get("q").asText());
                             quote.put("author", firstQuote.get("a").asText());
@@ -245,34 +477,19 @@ public class ExternalDataService {
         return quote;
     }
     
-    private Map<String, Object> getFallbackQuote() {
-        // Expanded fallback quotes
-        String[][] fallbackQuotes = {
-            {"The only way to do great work is to love what you do.", "Steve Jobs", "Inspiration"},
-            {"Life is what happens when you're busy making other plans.", "John Lennon", "Life"},
-            {"The future belongs to those who believe in the beauty of their dreams.", "Eleanor Roosevelt", "Dreams"},
-            {"Success is not final, failure is not fatal: it is the courage to continue that counts.", "Winston Churchill", "Success"},
-            {"The journey of a thousand miles begins with one step.", "Lao Tzu", "Wisdom"},
-            {"Be the change you wish to see in the world.", "Mahatma Gandhi", "Change"},
-            {"In the middle of difficulty lies opportunity.", "Albert Einstein", "Opportunity"},
-            {"The best way to predict the future is to invent it.", "Alan Kay", "Innovation"},
-            {"Everything you've ever wanted is on the other side of fear.", "George Addair", "Courage"},
-            {"The only limit to our realization of tomorrow is our doubts of today.", "Franklin D. Roosevelt", "Belief"}
-        };
-        
-        String[] selectedQuote = fallbackQuotes[random.nextInt(fallbackQuotes.length)];
-        
-        Map<String, Object> quote = new HashMap<>();
-        quote.put("text", selectedQuote[0]);
-        quote.put("author", selectedQuote[1]);
-        quote.put("category", selectedQuote[2]);
-        
-        return quote;
+    private Map<String, Object> getFallbackQuote(LocalDate day) {
+        // Deterministic per day, so every display shows the same local quote
+        return quoteCorpus.forDate(day);
     }
     
     public Map<String, Object> getBusLocation() {
-        // This would integrate with local transit APIs
-        // For now, provide mock data based on time
+        // Scheduled departures from the GTFS feed when one is configured
+        Map<String, Object> scheduled = transitService.getBusInfo();
+        if (scheduled != null) {
+            return scheduled;
+        }
+        
+        // Otherwise provide mock data based on time
         Map<String, Object> busInfo = new HashMap<>();
         LocalDateTime now = LocalDateTime.now();
         int minute = now.getMinute();
@@ -286,29 +503,6 @@ public class ExternalDataService {
         return busInfo;
     }
     
-    // Helper methods
-    private String formatTemperature(double temp) {
-        return String.format("%.1f°C", temp);
-    }
-    
-    private String getWeatherCondition(int weatherCode) {
-        // WMO Weather interpretation codes
-        if (weatherCode == 0) return "Clear Sky";
-        else if (weatherCode >= 1 && weatherCode <= 3) return "Partly Cloudy";
-        else if (weatherCode >= 45 && weatherCode <= 48) return "Foggy";
-        else if (weatherCode >= 51 && weatherCode <= 55) return "Drizzle";
-        else if (weatherCode >= 56 && weatherCode <= 57) return "Freezing Drizzle";
-        else if (weatherCode >= 61 && weatherCode <= 65) return "Rain";
-        else if (weatherCode >= 66 && weatherCode <= 67) return "Freezing Rain";
-        else if (weatherCode >= 71 && weatherCode <= 75) return "Snow";
-        else if (weatherCode >= 77 && weatherCode <= 77) return "Snow Grains";
-        else if (weatherCode >= 80 && weatherCode <= 82) return "Rain Showers";
-        else if (weatherCode >= 85 && weatherCode <= 86) return "Snow Showers";
-        else if (weatherCode >= 95 && weatherCode <= 95) return "Thunderstorm";
-        else if (weatherCode >= 96 && weatherCode <= 99) return "Thunderstorm with Hail";
-        else return "Unknown";
-    }
-    
     // Empty data methods (no mock data)
     private Map<String, Object> createEmptyWeatherData() {
         Map<String, Object> weather = new HashMap<>();
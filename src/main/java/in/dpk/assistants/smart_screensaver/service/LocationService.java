@@ -1,33 +1,75 @@
 package in.dpk.assistants.smart_screensaver.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import in.dpk.assistants.smart_screensaver.cache.WidgetCache;
 import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.device.DeviceContext;
+import in.dpk.assistants.smart_screensaver.event.LocationChangedEvent;
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.util.Locale;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Location per device. Every display starts from the server's IP-based location (one shared lookup)
+ * and can switch to its browser location; location-derived data is cached by location key, so displays
+ * in the same place share it.
+ */
 @Service
 @Slf4j
 public class LocationService {
     
+    private static final String IP_LOCATION_KEY = "ip";
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final WebClient webClient;
     private final ExternalApiConfig apiConfig;
-    private final Map<String, Object> currentLocation = new ConcurrentHashMap<>();
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScreensaverMetrics metrics;
+    // Displays that went away are dropped after an idle period, so the map and isLocationInUse stay bounded
+    private final Cache<String, Map<String, Object>> deviceLocations;
+    private final WidgetCache<Map<String, Object>> ipLocationCache;
+    private final WidgetCache<Map<String, Object>> geocodeCache;
     
-    public LocationService(WebClient webClient, ExternalApiConfig apiConfig) {
+    public LocationService(WebClient webClient, ExternalApiConfig apiConfig, ApplicationEventPublisher eventPublisher,
+                           WidgetSnapshotService widgetSnapshotService, ScreensaverMetrics metrics) {
         this.webClient = webClient;
         this.apiConfig = apiConfig;
-        // Initialize with IP-based location on startup
-        initializeLocation();
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.deviceLocations = Caffeine.newBuilder()
+                .expireAfterAccess(apiConfig.getDeviceLocationIdleTimeout())
+                .build();
+        this.ipLocationCache = new WidgetCache<>("location", apiConfig.getLocationCacheTtl(), apiConfig.getMaxStale());
+        this.geocodeCache = new WidgetCache<>("geocode", apiConfig.getLocationCacheTtl(), apiConfig.getMaxStale());
+        
+        metrics.monitor(ipLocationCache);
+        metrics.monitor(geocodeCache);
+        widgetSnapshotService.attach(geocodeCache);
+        ipLocationCache.onLoad((key, value) -> widgetSnapshotService.save(ipLocationCache.getName(), key, value));
+        // Initialize with IP-based location once the last known location is restored, so startup
+        // shows it right away and revalidates in the background instead of blocking on the upstream
+        widgetSnapshotService.whenLoaded(ipLocationCache.getName(), snapshots -> {
+            widgetSnapshotService.restore(ipLocationCache, snapshots);
+            initializeLocation(currentLocation());
+        });
     }
     
-    private void initializeLocation() {
+    private Map<String, Object> currentLocation() {
+        return deviceLocations.get(DeviceContext.currentDeviceId(), deviceId -> new ConcurrentHashMap<>());
+    }
+    
+    private void initializeLocation(Map<String, Object> currentLocation) {
         try {
             log.info("Initializing location service...");
             Map<String, Object> ipLocation = getIPBasedLocation();
@@ -43,22 +85,34 @@ public class LocationService {
     }
     
     public Map<String, Object> getLocationInfo() {
+        Map<String, Object> currentLocation = currentLocation();
         // Always return current location (IP-based or browser-based)
         if (!currentLocation.isEmpty()) {
             log.info("Returning current location: {} (source: {})", 
                     currentLocation.get("city"), currentLocation.get("source"));
+            if ("ip".equals(currentLocation.get("source"))) {
+                return revalidateIPBasedLocation(currentLocation);
+            }
             return new HashMap<>(currentLocation);
         }
         
         log.info("No current location, falling back to IP-based location");
-        // Fallback to IP-based location
-        return getIPBasedLocation();
+        // Fallback to IP-based location, which this device then keeps following
+        Map<String, Object> ipLocation = getIPBasedLocation();
+        if (ipLocation != null) {
+            currentLocation.putAll(ipLocation);
+            publishLocationChange(null);
+        }
+        return ipLocation;
     }
     
     public void setBrowserLocation(double latitude, double longitude, String city, String region, String country) {
         log.info("Setting browser location: lat={}, lon={}, city={}, region={}, country={}", 
                 latitude, longitude, city, region, country);
         
+        Map<String, Object> currentLocation = currentLocation();
+        String oldLocationKey = locationKey(currentLocation);
+        
         // Clear current location
         currentLocation.clear();
         
@@ -98,30 +152,85 @@ public class LocationService {
         }
         
         log.info("Final location set: {}", currentLocation.get("city"));
+        publishLocationChange(oldLocationKey);
+    }
+    
+    /**
+     * Key identifying a location for caching purposes. Coordinates are rounded to two decimals
+     * (roughly 1 km) so small GPS jitter does not invalidate location-derived caches.
+     */
+    public static String locationKey(double latitude, double longitude) {
+        return String.format(Locale.ROOT, "%.2f,%.2f", latitude, longitude);
+    }
+    
+    public static String locationKey(Map<String, Object> location) {
+        if (location == null || location.get("latitude") == null || location.get("longitude") == null) {
+            return null;
+        }
+        try {
+            return locationKey(Double.parseDouble(location.get("latitude").toString()),
+                    Double.parseDouble(location.get("longitude").toString()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    public String getCurrentLocationKey() {
+        return locationKey(currentLocation());
+    }
+    
+    /**
+     * Whether any device is currently at the given location key.
+     */
+    public boolean isLocationInUse(String locationKey) {
+        return locationKey != null && deviceLocations.asMap().values().stream()
+                .anyMatch(location -> locationKey.equals(locationKey(location)));
+    }
+    
+    private void publishLocationChange(String oldLocationKey) {
+        String newLocationKey = getCurrentLocationKey();
+        if (!Objects.equals(oldLocationKey, newLocationKey)) {
+            String deviceId = DeviceContext.currentDeviceId();
+            log.info("Location of device {} changed from {} to {}", deviceId, oldLocationKey, newLocationKey);
+            eventPublisher.publishEvent(new LocationChangedEvent(deviceId, oldLocationKey, newLocationKey));
+        }
+    }
+    
+    /**
+     * IP-derived locations are read through the stale-while-revalidate cache, so an expired lookup is
+     * served immediately and the result of its background refresh is picked up on a later call.
+     */
+    private Map<String, Object> revalidateIPBasedLocation(Map<String, Object> currentLocation) {
+        WidgetCache.Lookup<Map<String, Object>> lookup = ipLocationCache.getOrRefresh(IP_LOCATION_KEY, this::fetchIPBasedLocation);
+        if (lookup == null) {
+            return new HashMap<>(currentLocation);
+        }
+        if (!lookup.value().equals(currentLocation)) {
+            String oldLocationKey = locationKey(currentLocation);
+            currentLocation.clear();
+            currentLocation.putAll(lookup.value());
+            publishLocationChange(oldLocationKey);
+        }
+        return lookup.stale() ? WidgetCache.markStale(lookup.value()) : new HashMap<>(lookup.value());
     }
     
     private Map<String, Object> getIPBasedLocation() {
+        WidgetCache.Lookup<Map<String, Object>> lookup = ipLocationCache.getOrRefresh(IP_LOCATION_KEY, this::fetchIPBasedLocation);
+        return lookup != null ? new HashMap<>(lookup.value()) : null;
+    }
+    
+    private Map<String, Object> fetchIPBasedLocation() {
         try {
             log.info("Fetching IP-based location from: {}", apiConfig.getLocationApiUrl());
             
-            String response = webClient.get()
+            String response = metrics.upstream("ipapi", () -> webClient.get()
                     .uri(apiConfig.getLocationApiUrl())
                     .retrieve()
                     .bodyToMono(String.class)
-                    .block();
+                    .block());
             
             if (response != null) {
-                JsonNode locationData = objectMapper.readTree(response);
-                
-                Map<String, Object> location = new HashMap<>();
-                location.put("latitude", locationData.get("latitude").asText());
-                location.put("longitude", locationData.get("longitude").asText());
-                location.put("city", locationData.get("city").asText());
-                location.put("region", locationData.get("region").asText());
-                location.put("country", locationData.get("country_name").asText());
-                location.put("timezone", locationData.get("timezone").asText());
-                location.put("source", "ip");
-                
+                Map<String, Object> location = parseIPLocation(objectMapper.readTree(response));
                 log.info("IP-based location data fetched successfully: {}", location);
                 return location;
             }
@@ -133,32 +242,28 @@ public class LocationService {
     }
     
     private Map<String, Object> reverseGeocode(double latitude, double longitude) {
+        WidgetCache.Lookup<Map<String, Object>> lookup = geocodeCache.getOrRefresh(locationKey(latitude, longitude),
+                () -> fetchReverseGeocode(latitude, longitude));
+        return lookup != null ? new HashMap<>(lookup.value()) : null;
+    }
+    
+    private Map<String, Object> fetchReverseGeocode(double latitude, double longitude) {
         try {
             // Use Open-Meteo's reverse geocoding API (free and reliable)
-            String geocodingUrl = String.format("https://geocoding-api.open-meteo.com/v1/search?name=&count=1&language=en&format=json&latitude=%.4f&longitude=%.4f",
-                    latitude, longitude);
+            String geocodingUrl = String.format(Locale.ROOT, "%s?name=&count=1&language=en&format=json&latitude=%.4f&longitude=%.4f",
+                    apiConfig.getGeocodingApiUrl(), latitude, longitude);
             
             log.info("Reverse geocoding coordinates: {}, {}", latitude, longitude);
             
-            String response = webClient.get()
+            String response = metrics.upstream("geocoding", () -> webClient.get()
                     .uri(geocodingUrl)
                     .retrieve()
                     .bodyToMono(String.class)
-                    .block();
+                    .block());
             
             if (response != null) {
-                JsonNode geocodingData = objectMapper.readTree(response);
-                JsonNode results = geocodingData.get("results");
-                
-                if (results != null && results.isArray() && results.size() > 0) {
-                    JsonNode location = results.get(0);
-                    
-                    Map<String, Object> geocodedLocation = new HashMap<>();
-                    geocodedLocation.put("city", location.get("name").asText());
-                    geocodedLocation.put("region", location.get("admin1").asText());
-                    geocodedLocation.put("country", location.get("country").asText());
-                    geocodedLocation.put("timezone", location.get("timezone").asText());
-                    
+                Map<String, Object> geocodedLocation = parseReverseGeocode(objectMapper.readTree(response));
+                if (geocodedLocation != null) {
                     log.info("Reverse geocoding successful: {} {}, {}", 
                             geocodedLocation.get("city"), 
                             geocodedLocation.get("region"), 
@@ -174,16 +279,46 @@ public class LocationService {
         return null;
     }
     
+    static Map<String, Object> parseIPLocation(JsonNode locationData) {
+        Map<String, Object> location = new HashMap<>();
+        location.put("latitude", locationData.get("latitude").asText());
+        location.put("longitude", locationData.get("longitude").asText());
+        location.put("city", locationData.get("city").asText());
+        location.put("region", locationData.get("region").asText());
+        location.put("country", locationData.get("country_name").asText());
+        location.put("timezone", locationData.get("timezone").asText());
+        location.put("source", "ip");
+        return location;
+    }
+    
+    /**
+     * First result of an Open-Meteo geocoding response, or null if it has none.
+     */
+    static Map<String, Object> parseReverseGeocode(JsonNode geocodingData) {
+        JsonNode results = geocodingData.get("results");
+        if (results == null || !results.isArray() || results.size() == 0) {
+            return null;
+        }
+        JsonNode location = results.get(0);
+        Map<String, Object> geocodedLocation = new HashMap<>();
+        geocodedLocation.put("city", location.get("name").asText());
+        geocodedLocation.put("region", location.get("admin1").asText());
+        geocodedLocation.put("country", location.get("country").asText());
+        geocodedLocation.put("timezone", location.get("timezone").asText());
+        return geocodedLocation;
+    }
+    
     // Backward compatibility methods
     public Map<String, Object> getBrowserLocation() {
         return getLocationInfo();
     }
     
     public boolean hasLocationData() {
-        return !currentLocation.isEmpty();
+        return !currentLocation().isEmpty();
     }
     
     public boolean hasValidLocationData() {
+        Map<String, Object> currentLocation = currentLocation();
         if (currentLocation.isEmpty()) {
             return false;
         }
@@ -193,7 +328,7 @@ public class LocationService {
     }
     
     public boolean isLocationPermissionGranted() {
-        return "browser".equals(currentLocation.get("source"));
+        return "browser".equals(currentLocation().get("source"));
     }
     
     public boolean isLocationRequested() {
@@ -201,7 +336,7 @@ public class LocationService {
     }
     
     public boolean isLocationExpired() {
-        return currentLocation.isEmpty();
+        return currentLocation().isEmpty();
     }
     
     public void setLocationPermissionGranted(boolean granted) {
@@ -215,10 +350,13 @@ public class LocationService {
     }
     
     public void clearLocation() {
+        Map<String, Object> currentLocation = currentLocation();
+        String oldLocationKey = locationKey(currentLocation);
         currentLocation.clear();
-        log.info("Location data cleared");
+        log.info("Location data cleared for device {}", DeviceContext.currentDeviceId());
         // Re-initialize with IP-based location
-        initializeLocation();
+        initializeLocation(currentLocation);
+        publishLocationChange(oldLocationKey);
     }
     
     public Map<String, Object> getLocationStatus() {
@@ -228,7 +366,7 @@ public class LocationService {
         status.put("permissionGranted", isLocationPermissionGranted());
         status.put("locationRequested", isLocationRequested());
         status.put("isExpired", isLocationExpired());
-        status.put("source", currentLocation.get("source"));
+        status.put("source", currentLocation().get("source"));
         
         if (hasLocationData()) {
             status.put("location", getLocationInfo());
@@ -1,7 +1,13 @@
 package in.dpk.assistants.smart_screensaver.service;
 
+import in.dpk.assistants.smart_screensaver.cache.WidgetCache;
+import in.dpk.assistants.smart_screensaver.device.DeviceContext;
+import in.dpk.assistants.smart_screensaver.entity.ActionSetConverter;
 import in.dpk.assistants.smart_screensaver.entity.Routine;
 import in.dpk.assistants.smart_screensaver.entity.UserPreference;
+import in.dpk.assistants.smart_screensaver.jfr.ContentAssembled;
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import in.dpk.assistants.smart_screensaver.quote.QuoteCorpus;
 import in.dpk.assistants.smart_screensaver.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,7 +19,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.Random;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -25,16 +31,43 @@ public class ScreensaverService {
     private final LocationService locationService;
     private final GreetingService greetingService;
     private final TimeService timeService;
+    private final QuoteCorpus quoteCorpus;
+    private final ScreensaverMetrics metrics;
     
     public Map<String, Object> getScreensaverContent() {
+        return getScreensaverContent(userService.getPreferenceSnapshot());
+    }
+    
+    /**
+     * Builds the content with preferences the caller already fetched for this request.
+     */
+    public Map<String, Object> getScreensaverContent(UserPreference.Snapshot preferences) {
+        ContentAssembled event = new ContentAssembled();
+        event.begin();
+        WidgetCache.startCountingHits();
+        int[] routinesMatched = new int[1];
+        Map<String, Object> content;
+        try {
+            content = metrics.stage("total", () -> assembleContent(preferences, routinesMatched));
+        } finally {
+            event.cacheHits = WidgetCache.stopCountingHits();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.deviceId = DeviceContext.currentDeviceId();
+            event.routinesMatched = routinesMatched[0];
+            event.widgets = content.size();
+            event.commit();
+        }
+        return content;
+    }
+    
+    private Map<String, Object> assembleContent(UserPreference.Snapshot preferences, int[] routinesMatched) {
         Map<String, Object> content = new HashMap<>();
         LocalDateTime now = timeService.getCurrentDateTime();
         
-        // Get user preferences
-        UserPreference preferences = userService.getUserPreference();
-        
-        // Get applicable routines
-        List<Routine> activeRoutines = userService.getEnabledRoutines();
+        // Get applicable routines (cached until a routine changes)
+        List<Routine.Snapshot> activeRoutines = metrics.stage("routines", () -> userService.getEnabledRoutineSet().routines());
         
         // Determine day category
         String dayCategory = determineDayCategory(now);
@@ -42,11 +75,13 @@ public class ScreensaverService {
         // Build content based on routines
         content.put("timestamp", timeService.formatTimestamp(now));
         content.put("dayCategory", dayCategory);
-        content.put("displayName", preferences.getDisplayName());
+        content.put("displayName", preferences != null ? preferences.displayName() : null);
         
         // Apply routine actions
-        for (Routine routine : activeRoutines) {
-            applyRoutineActions(routine, content, now);
+        for (Routine.Snapshot routine : activeRoutines) {
+            if (applyRoutineActions(routine, content, now)) {
+                routinesMatched[0]++;
+            }
         }
         
         // Add default content if no routines match
@@ -67,65 +102,66 @@ public class ScreensaverService {
         }
     }
     
-    private void applyRoutineActions(Routine routine, Map<String, Object> content, LocalDateTime now) {
+    private boolean applyRoutineActions(Routine.Snapshot routine, Map<String, Object> content, LocalDateTime now) {
         LocalTime currentTime = now.toLocalTime();
         
         // Check if routine is applicable for current time
-        if (routine.getStartTime() != null && routine.getEndTime() != null) {
-            if (currentTime.isBefore(routine.getStartTime()) || currentTime.isAfter(routine.getEndTime())) {
-                return;
+        if (routine.startTime() != null && routine.endTime() != null) {
+            if (currentTime.isBefore(routine.startTime()) || currentTime.isAfter(routine.endTime())) {
+                return false;
             }
         }
         
         // Check day category
-        if (routine.getDayCategory() != Routine.DayCategory.ANY) {
+        if (routine.dayCategory() != Routine.DayCategory.ANY) {
             String currentDayCategory = determineDayCategory(now);
-            if (!routine.getDayCategory().name().equals(currentDayCategory)) {
-                return;
+            if (!routine.dayCategory().name().equals(currentDayCategory)) {
+                return false;
             }
         }
         
-        // Apply actions
-        for (Routine.ActionType action : routine.getActions()) {
-            switch (action) {
+        // Apply actions, walking the set bits of the action mask in ActionType order
+        for (int bits = routine.actionMask(); bits != 0; bits &= bits - 1) {
+            switch (ActionSetConverter.actionAt(Integer.numberOfTrailingZeros(bits))) {
                 case SHOW_GREETING:
                     content.put("greeting", greetingService.getGreeting(now));
                     break;
                 case SHOW_QUOTE:
-                    content.put("quote", getQuoteOfTheDay());
+                    content.put("quote", metrics.stage("quote", () -> getQuote(routine)));
                     break;
                 case SHOW_TRAFFIC:
-                    if (routine.isShowTraffic()) {
-                        content.put("traffic", externalDataService.getTrafficInfo());
+                    if (routine.showTraffic()) {
+                        content.put("traffic", metrics.stage("traffic", externalDataService::getTrafficInfo));
                     }
                     break;
                 case SHOW_WEATHER:
-                    if (routine.isShowWeather()) {
-                        content.put("weather", externalDataService.getWeatherInfo());
+                    if (routine.showWeather()) {
+                        content.put("weather", metrics.stage("weather", externalDataService::getWeatherInfo));
                     }
                     break;
                 case SHOW_LOCATION:
-                    if (routine.isShowLocation()) {
-                        content.put("location", locationService.getLocationInfo());
+                    if (routine.showLocation()) {
+                        content.put("location", metrics.stage("location", locationService::getLocationInfo));
                     }
                     break;
                 case SHOW_TIME:
-                    if (routine.isShowTime()) {
+                    if (routine.showTime()) {
                         content.put("time", timeService.formatTime(now));
                     }
                     break;
                 case SHOW_DATE:
-                    if (routine.isShowDate()) {
+                    if (routine.showDate()) {
                         content.put("date", timeService.formatDate(now));
                     }
                     break;
                 case SHOW_CUSTOM_MESSAGE:
-                    if (routine.getCustomMessage() != null && !routine.getCustomMessage().isEmpty()) {
-                        content.put("customMessage", routine.getCustomMessage());
+                    if (routine.customMessage() != null && !routine.customMessage().isEmpty()) {
+                        content.put("customMessage", routine.customMessage());
                     }
                     break;
             }
         }
+        return true;
     }
     
     private void addDefaultContent(Map<String, Object> content, LocalDateTime now) {
@@ -140,23 +176,28 @@ public class ScreensaverService {
         }
     }
     
-    private String getQuoteOfTheDay() {
+    private String getQuote(Routine.Snapshot routine) {
+        String quoteSource = routine.quoteSource() != null ? routine.quoteSource().trim().toLowerCase(Locale.ROOT) : "";
         try {
-            Map<String, Object> quoteData = externalDataService.getQuoteOfTheDay();
-            String quote = quoteData.get("text").toString();
-            String author = quoteData.get("author").toString();
-            return quote + " - " + author;
+            Map<String, Object> quoteData;
+            if (quoteSource.equals("rotating")) {
+                quoteData = externalDataService.getRotatingQuote();
+            } else if (quoteSource.equals("corpus")) {
+                quoteData = quoteCorpus.random();
+            } else if (quoteSource.startsWith("corpus:")) {
+                // e.g. "corpus:wisdom" picks from one category of the local corpus
+                quoteData = quoteCorpus.random(quoteSource.substring("corpus:".length()));
+            } else {
+                quoteData = externalDataService.getQuoteOfTheDay();
+            }
+            return formatQuote(quoteData);
         } catch (Exception e) {
             log.error("Error getting quote: {}", e.getMessage());
-            // Fallback to static quotes
-            String[] quotes = {
-                "The only way to do great work is to love what you do. - Steve Jobs",
-                "Life is what happens when you're busy making other plans. - John Lennon",
-                "The future belongs to those who believe in the beauty of their dreams. - Eleanor Roosevelt",
-                "Success is not final, failure is not fatal: it is the courage to continue that counts. - Winston Churchill",
-                "The journey of a thousand miles begins with one step. - Lao Tzu"
-            };
-            return quotes[new Random().nextInt(quotes.length)];
+            return formatQuote(quoteCorpus.random());
         }
     }
-} 
\ No newline at end of file
+    
+    private String formatQuote(Map<String, Object> quoteData) {
+        return quoteData.get("text") + " - " + quoteData.get("author");
+    }
+}
@@ -1,23 +1,65 @@
 package in.dpk.assistants.smart_screensaver.service;
 
+import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
 import in.dpk.assistants.smart_screensaver.entity.SystemSettings;
+import in.dpk.assistants.smart_screensaver.jfr.SettingsLookup;
 import in.dpk.assistants.smart_screensaver.repository.SystemSettingsRepository;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SystemSettingsService {
     
+    // {key, value, description, category}
+    private static final String[][] DEFAULT_SETTINGS = {
+            // Weather API settings
+            {SystemSettings.WEATHER_API_URL, "https://api.open-meteo.com/v1/forecast", "Weather API endpoint URL", "api"},
+            {SystemSettings.WEATHER_API_ENABLED, "true", "Enable weather API calls", "api"},
+            // Quote API settings
+            {SystemSettings.QUOTE_API_URL, "https://api.quotable.io/random", "Quote API endpoint URL", "api"},
+            {SystemSettings.QUOTE_API_ENABLED, "true", "Enable quote API calls", "api"},
+            // Location API settings
+            {SystemSettings.LOCATION_API_URL, "https://ipapi.co/json/", "Location API endpoint URL", "api"},
+            {SystemSettings.LOCATION_API_ENABLED, "true", "Enable location API calls", "api"},
+            // Traffic API settings
+            {SystemSettings.TRAFFIC_API_URL, "", "Traffic API endpoint URL (optional)", "api"},
+            {SystemSettings.TRAFFIC_API_ENABLED, "false", "Enable traffic API calls", "api"},
+            // System settings
+            {SystemSettings.FALLBACK_MODE, "true", "Enable fallback mode when APIs are unavailable", "system"},
+            {SystemSettings.API_TIMEOUT, "10", "API timeout in seconds", "system"},
+            {SystemSettings.MAX_RETRIES, "3", "Maximum API retry attempts", "system"}
+    };
+    
     private final SystemSettingsRepository systemSettingsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ExternalApiConfig apiConfig;
     
     public String getSettingValue(String key, String defaultValue) {
+        SettingsLookup event = new SettingsLookup();
+        event.begin();
         Optional<String> value = systemSettingsRepository.findValueByKey(key);
+        event.end();
+        if (event.shouldCommit()) {
+            event.key = key;
+            event.found = value.isPresent();
+            event.commit();
+        }
         return value.orElse(defaultValue);
     }
     
@@ -87,90 +129,41 @@ public class SystemSettingsService {
         return systemSettingsRepository.findByEnabled(true);
     }
     
+    /**
+     * Inserts the default settings that are missing: one query for the existing keys and one batched
+     * insert. Rows go in through JDBC because IDENTITY ids keep Hibernate from batching inserts.
+     */
+    @Transactional
     public void initializeDefaultSettings() {
-        // Weather API settings
-        if (!systemSettingsRepository.existsBySettingKey(SystemSettings.WEATHER_API_URL)) {
-            setSetting(SystemSettings.WEATHER_API_URL, 
-                      "https://api.open-meteo.com/v1/forecast",
-                      "Weather API endpoint URL",
-                      "api");
-        }
-        
-        if (!systemSettingsRepository.existsBySettingKey(SystemSettings.WEATHER_API_ENABLED)) {
-            setSetting(SystemSettings.WEATHER_API_ENABLED, 
-                      "true",
-                      "Enable weather API calls",
-                      "api");
-        }
-        
-        // Quote API settings
-        if (!systemSettingsRepository.existsBySettingKey(SystemSettings.QUOTE_API_URL)) {
-            setSetting(SystemSettings.QUOTE_API_URL, 
-                      "https://api.quotable.io/random",
-                      "Quote API endpoint URL",
-                      "api");
-        }
-        
-        if (!systemSettingsRepository.existsBySettingKey(SystemSettings.QUOTE_API_ENABLED)) {
-            setSetting(SystemSettings.QUOTE_API_ENABLED, 
-                      "true",
-                      "Enable quote API calls",
-                      "api");
-        }
-        
-        // Location API settings
-        if (!systemSettingsRepository.existsBySettingKey(SystemSettings.LOCATION_API_URL)) {
-            setSetting(SystemSettings.LOCATION_API_URL, 
-                      "https://ipapi.co/json/",
-                      "Location API endpoint URL",
-                      "api");
-        }
-        
-        if (!systemSettingsRepository.existsBySettingKey(SystemSettings.LOCATION_API_ENABLED)) {
-            setSetting(SystemSettings.LOCATION_API_ENABLED, 
-                      "true",
-                      "Enable location API calls",
-                      "api");
-        }
-        
-        // Traffic API settings
-        if (!systemSettingsRepository.existsBySettingKey(SystemSettings.TRAFFIC_API_URL)) {
-            setSetting(SystemSettings.TRAFFIC_API_URL, 
-                      "",
-                      "Traffic API endpoint URL (optional)",
-                      "api");
-        }
-        
-        if (!systemSettingsRepository.existsBySettingKey(SystemSettings.TRAFFIC_API_ENABLED)) {
-            setSetting(SystemSettings.TRAFFIC_API_ENABLED, 
-                      "false",
-                      "Enable traffic API calls",
-                      "api");
-        }
-        
-        // System settings
-        if (!systemSettingsRepository.existsBySettingKey(SystemSettings.FALLBACK_MODE)) {
-            setSetting(SystemSettings.FALLBACK_MODE, 
-                      "true",
-                      "Enable fallback mode when APIs are unavailable",
-                      "system");
-        }
-        
-        if (!systemSettingsRepository.existsBySettingKey(SystemSettings.API_TIMEOUT)) {
-            setSetting(SystemSettings.API_TIMEOUT, 
-                      "10",
-                      "API timeout in seconds",
-                      "system");
+        Set<String> existingKeys = systemSettingsRepository.findAllSettingKeys();
+        // API URLs start from app.external.*, so a fresh database can point at other (e.g. local stub) endpoints
+        Map<String, String> configuredUrls = Map.of(
+                SystemSettings.WEATHER_API_URL, apiConfig.getWeatherApiUrl(),
+                SystemSettings.QUOTE_API_URL, apiConfig.getQuoteApiUrl(),
+                SystemSettings.LOCATION_API_URL, apiConfig.getLocationApiUrl());
+        List<Object[]> missing = new ArrayList<>();
+        for (String[] setting : DEFAULT_SETTINGS) {
+            if (!existingKeys.contains(setting[0])) {
+                String value = configuredUrls.getOrDefault(setting[0], setting[1]);
+                missing.add(new Object[]{setting[0], value, setting[2], setting[3], true});
+            }
         }
         
-        if (!systemSettingsRepository.existsBySettingKey(SystemSettings.MAX_RETRIES)) {
-            setSetting(SystemSettings.MAX_RETRIES, 
-                      "3",
-                      "Maximum API retry attempts",
-                      "system");
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO system_settings (setting_key, setting_value, description, category, enabled) "
+                    + "VALUES (?, ?, ?, ?, ?)", missing);
+            // Lookups of keys that did not exist yet may be cached as empty. Hibernate does not see JDBC
+            // writes, so the region is evicted once they are committed; evicting earlier would let a
+            // concurrent lookup cache the pre-commit state again
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion("settings-queries");
+                }
+            });
         }
         
-        log.info("Initialized default system settings");
+        log.info("Initialized default system settings ({} created)", missing.size());
     }
     
     public boolean isApiEnabled(String apiType) {
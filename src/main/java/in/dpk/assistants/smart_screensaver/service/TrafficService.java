@@ -0,0 +1,104 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.entity.UserPreference;
+import in.dpk.assistants.smart_screensaver.entity.WidgetSnapshot;
+import in.dpk.assistants.smart_screensaver.timeseries.TimeSeriesStore;
+import in.dpk.assistants.smart_screensaver.traffic.TrafficModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Travel time estimates per commute route (home to work address from the user preferences), backed by
+ * a {@link TrafficModel} table per route. Traffic providers feed observed travel times through
+ * {@link #recordSample}; requests only ever read the table.
+ */
+@Service
+@Slf4j
+public class TrafficService {
+    
+    private static final String SNAPSHOT_WIDGET = "traffic-model";
+    
+    private final ExternalApiConfig apiConfig;
+    private final UserService userService;
+    private final WidgetSnapshotService widgetSnapshotService;
+    private final TimeSeriesStore timeSeriesStore;
+    private final Map<String, TrafficModel> models = new ConcurrentHashMap<>();
+    
+    public TrafficService(ExternalApiConfig apiConfig, UserService userService,
+                          WidgetSnapshotService widgetSnapshotService, TimeSeriesStore timeSeriesStore) {
+        this.apiConfig = apiConfig;
+        this.userService = userService;
+        this.widgetSnapshotService = widgetSnapshotService;
+        this.timeSeriesStore = timeSeriesStore;
+        // Learned tables survive restarts through the widget snapshot store
+        widgetSnapshotService.whenLoaded(SNAPSHOT_WIDGET, this::restore);
+    }
+    
+    public TrafficModel getModel(String routeKey) {
+        return models.computeIfAbsent(routeKey, key -> TrafficModel.seeded(
+                apiConfig.getTrafficFreeFlowMinutes(), apiConfig.getTrafficDistanceKm(), apiConfig.getTrafficSampleWeight()));
+    }
+    
+    public String getCurrentRouteKey() {
+        UserPreference.Snapshot preference = userService.getPreferenceSnapshot();
+        return routeKey(preference != null ? preference.homeAddress() : null,
+                preference != null ? preference.workAddress() : null);
+    }
+    
+    public static String routeKey(String homeAddress, String workAddress) {
+        return normalize(homeAddress, "home") + " -> " + normalize(workAddress, "work");
+    }
+    
+    /**
+     * Records a travel time observed just now on the user's current route.
+     */
+    public void recordSample(float travelMinutes) {
+        recordSample(getCurrentRouteKey(), ZonedDateTime.now(userService.getUserZone()), travelMinutes);
+    }
+    
+    /**
+     * Records a travel time observed on a route at the given local time.
+     */
+    public void recordSample(String routeKey, ZonedDateTime observedAt, float travelMinutes) {
+        TrafficModel model = getModel(routeKey);
+        model.record(observedAt.getDayOfWeek(), observedAt.getHour(), observedAt.getMinute(), travelMinutes);
+        log.debug("Recorded {} min travel time for {} at {}", travelMinutes, routeKey, observedAt);
+        timeSeriesStore.append(TimeSeriesStore.TRAVEL_TIME, routeKey, observedAt.toEpochSecond(), travelMinutes);
+        
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("minutes", model.toArray());
+        snapshot.put("samples", model.getSamples());
+        widgetSnapshotService.save(SNAPSHOT_WIDGET, routeKey, snapshot);
+    }
+    
+    private void restore(List<WidgetSnapshot> snapshots) {
+        for (WidgetSnapshot snapshot : snapshots) {
+            JsonNode json = widgetSnapshotService.readJson(snapshot);
+            if (json == null || !json.path("minutes").isArray()) {
+                continue;
+            }
+            JsonNode values = json.get("minutes");
+            float[] minutes = new float[values.size()];
+            for (int i = 0; i < minutes.length; i++) {
+                minutes[i] = (float) values.get(i).asDouble();
+            }
+            getModel(snapshot.getCacheKey()).restore(minutes, json.path("samples").asLong());
+        }
+        if (!snapshots.isEmpty()) {
+            log.info("Restored {} traffic models from snapshots", snapshots.size());
+        }
+    }
+    
+    private static String normalize(String address, String fallback) {
+        return address == null || address.isBlank() ? fallback : address.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,228 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import in.dpk.assistants.smart_screensaver.transit.GtfsIngestor;
+import in.dpk.assistants.smart_screensaver.transit.GtfsRealtimeDecoder;
+import in.dpk.assistants.smart_screensaver.transit.StopTimeIndex;
+import in.dpk.assistants.smart_screensaver.transit.TripDelayTable;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bus departures for the configured stop from a GTFS static feed. The feed is indexed into a
+ * memory-mapped file once and only re-ingested when the feed path or any of its files changes.
+ * Delays and cancellations from an optional GTFS-Realtime TripUpdates feed are polled into a
+ * per-trip table and applied to the scheduled departures when they are read.
+ */
+@Service
+@Slf4j
+public class TransitService {
+    
+    private final ExternalApiConfig apiConfig;
+    private final UserService userService;
+    private final SystemSettingsService systemSettingsService;
+    private final ScreensaverMetrics metrics;
+    private final TripDelayTable tripDelays = new TripDelayTable();
+    // Polls block on the feed connection, so they run here rather than on the shared scheduler thread
+    private final ExecutorService realtimeExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "gtfs-realtime");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private volatile StopTimeIndex index;
+    
+    public TransitService(ExternalApiConfig apiConfig, UserService userService,
+                          SystemSettingsService systemSettingsService, ScreensaverMetrics metrics) {
+        this.apiConfig = apiConfig;
+        this.userService = userService;
+        this.systemSettingsService = systemSettingsService;
+        this.metrics = metrics;
+        // Ingesting a large feed takes a while, so it never holds up startup
+        CompletableFuture.runAsync(this::loadSchedule)
+                .exceptionally(e -> {
+                    log.error("Could not load GTFS schedule: {}", e.getMessage());
+                    return null;
+                });
+    }
+    
+    public void loadSchedule() {
+        String feed = apiConfig.getGtfsStaticPath();
+        if (feed == null || feed.isBlank()) {
+            log.info("No GTFS feed configured, bus info uses placeholder data");
+            return;
+        }
+        try {
+            Path feedDir = Paths.get(feed);
+            Path indexFile = Paths.get(apiConfig.getGtfsIndexFile());
+            if (!GtfsIngestor.isCurrent(feedDir, indexFile)) {
+                log.info("Indexing GTFS feed from {}", feedDir);
+                GtfsIngestor.build(feedDir, indexFile);
+            }
+            index = StopTimeIndex.open(indexFile);
+            log.info("GTFS schedule loaded: {} stop times at {} stops", index.getStopTimeCount(), index.getStopCount());
+        } catch (Exception e) {
+            log.error("Error loading GTFS feed {}: {}", feed, e.getMessage());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.external.gtfs-realtime-interval:PT30S}")
+    public void pollRealtimeFeed() {
+        String feed = apiConfig.getGtfsRealtimeUrl();
+        if (feed == null || feed.isBlank()) {
+            return;
+        }
+        // A poll still waiting on a slow feed is not queued up behind
+        if (polling.compareAndSet(false, true)) {
+            realtimeExecutor.execute(() -> {
+                try {
+                    pollRealtimeFeed(feed);
+                } finally {
+                    polling.set(false);
+                }
+            });
+        }
+    }
+    
+    private void pollRealtimeFeed(String feed) {
+        long receivedAt = System.currentTimeMillis();
+        long started = System.nanoTime();
+        String outcome = "error";
+        int[] counts = new int[2];
+        try (InputStream in = openFeed(feed)) {
+            // Updates are applied as they are decoded, nothing else in the table is touched
+            long feedTimestamp = GtfsRealtimeDecoder.decode(in, update -> {
+                counts[0]++;
+                if (tripDelays.apply(update, receivedAt)) {
+                    counts[1]++;
+                }
+            });
+            int expired = tripDelays.expire(receivedAt - apiConfig.getGtfsRealtimeExpiry().toMillis());
+            log.debug("Applied {} of {} trip updates from feed at {}, expired {}, tracking {} trips",
+                    counts[1], counts[0], feedTimestamp, expired, tripDelays.size());
+            outcome = "success";
+        } catch (SocketTimeoutException e) {
+            outcome = "timeout";
+            log.warn("Timed out polling GTFS-Realtime feed {}: {}", feed, e.getMessage());
+        } catch (Exception e) {
+            log.warn("Error polling GTFS-Realtime feed {}: {}", feed, e.getMessage());
+        } finally {
+            metrics.recordUpstream("gtfs-realtime", outcome, System.nanoTime() - started);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        realtimeExecutor.shutdownNow();
+    }
+    
+    public List<StopTimeIndex.Departure> getNextDepartures(String stopId, ZonedDateTime now, int limit) {
+        StopTimeIndex current = index;
+        if (current == null || stopId == null) {
+            return List.of();
+        }
+        return current.nextDepartures(stopId, now.toLocalDate(), now.toLocalTime().toSecondOfDay(), limit);
+    }
+    
+    /**
+     * Bus widget data for the configured stop, or null while no schedule is loaded or nothing departs.
+     */
+    public Map<String, Object> getBusInfo() {
+        StopTimeIndex current = index;
+        String stopId = apiConfig.getTransitStopId();
+        if (current == null || stopId == null || !current.hasStop(stopId)) {
+            return null;
+        }
+        
+        ZonedDateTime now = ZonedDateTime.now(userService.getUserZone());
+        int count = apiConfig.getTransitDepartureCount();
+        // Look a little further ahead so cancelled or delayed trips can be replaced by later ones
+        List<StopTimeIndex.Departure> departures = getNextDepartures(stopId, now, count * 2);
+        
+        List<Map<String, Object>> upcoming = new ArrayList<>();
+        for (StopTimeIndex.Departure departure : departures) {
+            if (tripDelays.isCanceled(departure.tripId())) {
+                continue;
+            }
+            long scheduled = departure.serviceDate().atStartOfDay(now.getZone()).toEpochSecond() + departure.departureSeconds();
+            Integer delay = tripDelays.delaySeconds(departure.tripId(), stopId, departure.stopSequence(), scheduled);
+            int secondsFromNow = departure.secondsFromNow() + (delay != null ? delay : 0);
+            if (secondsFromNow < 0) {
+                continue;
+            }
+            
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("busNumber", departure.route());
+            entry.put("destination", departure.headsign());
+            entry.put("estimatedArrival", formatMinutes(secondsFromNow));
+            entry.put("secondsFromNow", secondsFromNow);
+            entry.put("status", formatStatus(delay));
+            upcoming.add(entry);
+        }
+        if (upcoming.isEmpty()) {
+            return null;
+        }
+        upcoming.sort(Comparator.comparingInt(entry -> (Integer) entry.get("secondsFromNow")));
+        if (upcoming.size() > count) {
+            upcoming = new ArrayList<>(upcoming.subList(0, count));
+        }
+        
+        Map<String, Object> next = upcoming.get(0);
+        Map<String, Object> busInfo = new HashMap<>();
+        busInfo.put("busNumber", next.get("busNumber"));
+        busInfo.put("estimatedArrival", next.get("estimatedArrival"));
+        busInfo.put("currentLocation", current.getStopName(stopId));
+        busInfo.put("nextStop", next.get("destination"));
+        busInfo.put("status", next.get("status"));
+        busInfo.put("departures", upcoming);
+        return busInfo;
+    }
+    
+    private static String formatStatus(Integer delay) {
+        if (delay == null) {
+            return "Scheduled";
+        }
+        if (Math.abs(delay) < 60) {
+            return "On Time";
+        }
+        return delay > 0 ? "Delayed " + (delay + 59) / 60 + " min" : "Early " + (-delay + 59) / 60 + " min";
+    }
+    
+    private InputStream openFeed(String feed) throws IOException {
+        if (!feed.contains("://")) {
+            return new BufferedInputStream(Files.newInputStream(Paths.get(feed)));
+        }
+        // file: URLs work too, so a local stand-in can replace the agency endpoint
+        URLConnection connection = URI.create(feed).toURL().openConnection();
+        connection.setConnectTimeout(systemSettingsService.getApiTimeout() * 1000);
+        connection.setReadTimeout(systemSettingsService.getApiTimeout() * 1000);
+        return new BufferedInputStream(connection.getInputStream());
+    }
+    
+    private static String formatMinutes(int seconds) {
+        return (seconds + 59) / 60 + " min";
+    }
+}
@@ -1,5 +1,9 @@
 package in.dpk.assistants.smart_screensaver.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.device.DeviceContext;
 import in.dpk.assistants.smart_screensaver.entity.UserPreference;
 import in.dpk.assistants.smart_screensaver.entity.Routine;
 import in.dpk.assistants.smart_screensaver.repository.UserPreferenceRepository;
@@ -14,7 +18,10 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.time.DateTimeException;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @Slf4j
@@ -22,7 +29,8 @@ public class UserService {
     
     private static final String DATA_FILE = "screensaver_data.json";
     private static final String ROUTINES_FILE = "routines_data.json";
-    private static final String DEFAULT_USER_ID = "default";
+    // Device IDs come from clients, so per-device caches are bounded in size as well as by idle time
+    private static final int MAX_CACHED_DEVICES = 1_000;
     
     @Autowired
     private UserPreferenceRepository userPreferenceRepository;
@@ -32,25 +40,93 @@ public class UserService {
     
     private ObjectMapper objectMapper = new ObjectMapper();
     
+    // Resolved preferences per device ID; cleared on every preference save
+    private final Cache<String, UserPreference.Snapshot> preferenceCache;
+    
+    // Bumped after every routine write; cached routine lists built for an older version are rebuilt
+    private final AtomicLong routineVersion = new AtomicLong(1);
+    private final Cache<String, EnabledRoutines> enabledRoutineCache;
+    private volatile EnabledRoutines allEnabledRoutines;
+    
     public UserService() {
+        this(new ExternalApiConfig());
+    }
+    
+    @Autowired
+    public UserService(ExternalApiConfig apiConfig) {
         // Configure ObjectMapper for Java 8 time types
         objectMapper.registerModule(new JavaTimeModule());
+        this.preferenceCache = Caffeine.newBuilder()
+                .expireAfterAccess(apiConfig.getDeviceLocationIdleTimeout())
+                .maximumSize(MAX_CACHED_DEVICES)
+                .build();
+        this.enabledRoutineCache = Caffeine.newBuilder()
+                .expireAfterAccess(apiConfig.getDeviceLocationIdleTimeout())
+                .maximumSize(MAX_CACHED_DEVICES)
+                .build();
     }
     
     // User Preference methods
+    
+    /**
+     * Editable copy of the current device's preferences; save it with {@link #updateDevicePreference}.
+     * Code that only reads preferences should use {@link #getPreferenceSnapshot()}.
+     */
     public UserPreference getUserPreference() {
+        return getUserPreference(DeviceContext.currentDeviceId());
+    }
+    
+    public UserPreference getUserPreference(String deviceId) {
+        UserPreference.Snapshot snapshot = getPreferenceSnapshot(deviceId);
+        return snapshot != null ? snapshot.toPreference() : null;
+    }
+    
+    public UserPreference.Snapshot getPreferenceSnapshot() {
+        return getPreferenceSnapshot(DeviceContext.currentDeviceId());
+    }
+    
+    /**
+     * Preferences of a device, served from memory after the first read. Devices that never saved
+     * their own profile use the default one.
+     */
+    public UserPreference.Snapshot getPreferenceSnapshot(String deviceId) {
         try {
-            return userPreferenceRepository.findByUserId(DEFAULT_USER_ID)
-                    .orElse(null);
+            return preferenceCache.get(deviceId, this::loadPreference);
         } catch (Exception e) {
             log.error("Error getting user preference from database: {}", e.getMessage(), e);
             return null;
         }
     }
     
+    private UserPreference.Snapshot loadPreference(String deviceId) {
+        Optional<UserPreference> preference = userPreferenceRepository.findByUserId(deviceId);
+        if (preference.isEmpty() && !DeviceContext.isDefaultDevice(deviceId)) {
+            preference = userPreferenceRepository.findByUserId(DeviceContext.DEFAULT_DEVICE_ID);
+        }
+        return preference.map(UserPreference::snapshot).orElse(null);
+    }
+    
+    /**
+     * Timezone from the user preferences, or the system default when unset or invalid.
+     */
+    public ZoneId getUserZone() {
+        try {
+            UserPreference.Snapshot preference = getPreferenceSnapshot();
+            if (preference != null && preference.timezone() != null) {
+                return ZoneId.of(preference.timezone());
+            }
+        } catch (DateTimeException e) {
+            log.warn("Invalid user timezone, using system default: {}", e.getMessage());
+        }
+        return ZoneId.systemDefault();
+    }
+    
     public UserPreference updateUserPreference(UserPreference updatedPreference) {
         try {
             UserPreference savedPreference = userPreferenceRepository.save(updatedPreference);
+            // Devices falling back to the default profile are cached under their own IDs, so drop them all.
+            // Clearing after the save also discards any entry a concurrent read loaded before it.
+            preferenceCache.invalidateAll();
             log.info("User preferences updated in database: {}", savedPreference.getDisplayName());
             return savedPreference;
         } catch (Exception e) {
@@ -59,28 +135,113 @@ public class UserService {
         }
     }
     
-    // Routine methods
+    /**
+     * Saves preferences as the current device's profile. A device still reading the default profile
+     * gets its own row on the first save instead of overwriting the default.
+     */
+    public UserPreference updateDevicePreference(UserPreference updatedPreference) {
+        String deviceId = DeviceContext.currentDeviceId();
+        try {
+            updatedPreference.setId(userPreferenceRepository.findByUserId(deviceId)
+                    .map(UserPreference::getId)
+                    .orElse(null));
+            updatedPreference.setUserId(deviceId);
+        } catch (Exception e) {
+            log.error("Error looking up preferences of device {}: {}", deviceId, e.getMessage(), e);
+            return null;
+        }
+        return updateUserPreference(updatedPreference);
+    }
+    
+    // Routine methods: a device sees the shared routines plus its own
     public List<Routine> getAllRoutines() {
         try {
-            return new ArrayList<>(routineRepository.findAll());
+            return new ArrayList<>(routineRepository.findByDeviceIdIsNullOrDeviceId(DeviceContext.currentDeviceId()));
         } catch (Exception e) {
             log.error("Error getting routines from database: {}", e.getMessage(), e);
             return new ArrayList<>();
         }
     }
     
+    /**
+     * Enabled routine rows of the current device, read from the database. Content building uses
+     * {@link #getEnabledRoutineSet()} instead.
+     */
     public List<Routine> getEnabledRoutines() {
+        String deviceId = DeviceContext.currentDeviceId();
         try {
-            return routineRepository.findByEnabledTrueOrderByPriorityDescWithActions();
+            List<Routine> routines = new ArrayList<>();
+            for (Routine routine : routineRepository.findByEnabledTrueOrderByPriorityDesc()) {
+                if (routine.getDeviceId() == null || routine.getDeviceId().equals(deviceId)) {
+                    routines.add(routine);
+                }
+            }
+            return routines;
         } catch (Exception e) {
             log.error("Error getting enabled routines from database: {}", e.getMessage(), e);
             return new ArrayList<>();
         }
     }
     
+    public EnabledRoutines getEnabledRoutineSet() {
+        return getEnabledRoutineSet(DeviceContext.currentDeviceId());
+    }
+    
+    /**
+     * Enabled routines of a device by descending priority, held in memory until a routine is created,
+     * updated or deleted. The returned list is immutable and carries the routine version it was built
+     * from, which callers can use to key derived caches.
+     */
+    public EnabledRoutines getEnabledRoutineSet(String deviceId) {
+        long version = routineVersion.get();
+        EnabledRoutines cached = enabledRoutineCache.getIfPresent(deviceId);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+        EnabledRoutines all = loadEnabledRoutines(version);
+        List<Routine.Snapshot> visible = new ArrayList<>();
+        for (Routine.Snapshot routine : all.routines()) {
+            if (routine.isVisibleTo(deviceId)) {
+                visible.add(routine);
+            }
+        }
+        EnabledRoutines routines = new EnabledRoutines(all.version(), List.copyOf(visible));
+        enabledRoutineCache.put(deviceId, routines);
+        return routines;
+    }
+    
+    private synchronized EnabledRoutines loadEnabledRoutines(long version) {
+        EnabledRoutines all = allEnabledRoutines;
+        if (all != null && all.version() >= version) {
+            return all;
+        }
+        try {
+            List<Routine.Snapshot> routines = new ArrayList<>();
+            for (Routine routine : routineRepository.findByEnabledTrueOrderByPriorityDesc()) {
+                routines.add(routine.snapshot());
+            }
+            all = new EnabledRoutines(version, List.copyOf(routines));
+            allEnabledRoutines = all;
+            log.info("Loaded {} enabled routines (version {})", routines.size(), version);
+            return all;
+        } catch (Exception e) {
+            log.error("Error getting enabled routines from database: {}", e.getMessage(), e);
+            // Returned under an older version, so the next read tries the database again
+            return all != null ? all : new EnabledRoutines(0, List.of());
+        }
+    }
+    
+    /**
+     * Marks cached routine lists out of date; called after every routine write (including ones made
+     * directly through the repository), so a list loaded concurrently from the old rows is discarded.
+     */
+    public void routinesChanged() {
+        routineVersion.incrementAndGet();
+    }
+    
     public Routine getRoutineById(Long id) {
         try {
-            return routineRepository.findById(id).orElse(null);
+            return routineRepository.findByIdForDevice(id, DeviceContext.currentDeviceId()).orElse(null);
         } catch (Exception e) {
             log.error("Error getting routine by ID from database: {}", e.getMessage(), e);
             return null;
@@ -89,7 +250,13 @@ public class UserService {
     
     public Routine createRoutine(Routine routine) {
         try {
+            // Routines created on a kiosk stay on it; the default device manages the shared ones
+            String deviceId = DeviceContext.currentDeviceId();
+            if (routine.getDeviceId() == null && !DeviceContext.isDefaultDevice(deviceId)) {
+                routine.setDeviceId(deviceId);
+            }
             Routine savedRoutine = routineRepository.save(routine);
+            routinesChanged();
             log.info("Routine created in database: {}", savedRoutine.getName());
             return savedRoutine;
         } catch (Exception e) {
@@ -98,14 +265,23 @@ public class UserService {
         }
     }
     
+    /**
+     * Updates one of the current device's routines or a shared one; other devices' routines are
+     * reported as not found. A routine keeps the device it was created for.
+     */
     public Routine updateRoutine(Long id, Routine updatedRoutine) {
         try {
-            if (routineRepository.existsById(id)) {
+            String deviceId = DeviceContext.currentDeviceId();
+            Optional<Routine> existing = routineRepository.findByIdForDevice(id, deviceId);
+            if (existing.isPresent()) {
                 updatedRoutine.setId(id);
+                updatedRoutine.setDeviceId(existing.get().getDeviceId());
                 Routine savedRoutine = routineRepository.save(updatedRoutine);
+                routinesChanged();
                 log.info("Routine updated in database: {}", savedRoutine.getName());
                 return savedRoutine;
             }
+            log.warn("Routine {} not found for device {}", id, deviceId);
             return null;
         } catch (Exception e) {
             log.error("Error updating routine in database: {}", e.getMessage(), e);
@@ -115,15 +291,24 @@ public class UserService {
     
     public boolean deleteRoutine(Long id) {
         try {
-            if (routineRepository.existsById(id)) {
+            String deviceId = DeviceContext.currentDeviceId();
+            if (routineRepository.findByIdForDevice(id, deviceId).isPresent()) {
                 routineRepository.deleteById(id);
+                routinesChanged();
                 log.info("Routine deleted from database: {}", id);
                 return true;
             }
+            log.warn("Routine {} not found for device {}", id, deviceId);
             return false;
         } catch (Exception e) {
             log.error("Error deleting routine from database: {}", e.getMessage(), e);
             return false;
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Immutable list of enabled routines and the routine version it reflects.
+     */
+    public record EnabledRoutines(long version, List<Routine.Snapshot> routines) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.entity.WidgetSnapshot;
+import in.dpk.assistants.smart_screensaver.event.LocationChangedEvent;
+import in.dpk.assistants.smart_screensaver.timeseries.TimeSeriesStore;
+import in.dpk.assistants.smart_screensaver.weather.HourlyForecast;
+import in.dpk.assistants.smart_screensaver.weather.WeatherBatchClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a 48 hour hourly forecast per location key and refreshes it in the background.
+ * Callers read interpolated "current" values from the series instead of calling the API per poll,
+ * and displays at the same location share one series.
+ */
+@Service
+@Slf4j
+public class WeatherForecastService {
+    
+    private static final String SNAPSHOT_WIDGET = "weather";
+    
+    private final WeatherBatchClient weatherBatchClient;
+    private final SystemSettingsService systemSettingsService;
+    private final ExternalApiConfig apiConfig;
+    private final WidgetSnapshotService widgetSnapshotService;
+    private final LocationService locationService;
+    private final TimeSeriesStore timeSeriesStore;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, HourlyForecast> forecasts = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    
+    public WeatherForecastService(WeatherBatchClient weatherBatchClient, SystemSettingsService systemSettingsService,
+                                  ExternalApiConfig apiConfig, WidgetSnapshotService widgetSnapshotService,
+                                  LocationService locationService, TimeSeriesStore timeSeriesStore) {
+        this.weatherBatchClient = weatherBatchClient;
+        this.systemSettingsService = systemSettingsService;
+        this.apiConfig = apiConfig;
+        this.widgetSnapshotService = widgetSnapshotService;
+        this.locationService = locationService;
+        this.timeSeriesStore = timeSeriesStore;
+        // Forecasts from the last run are usually still within their 48h window
+        widgetSnapshotService.whenLoaded(SNAPSHOT_WIDGET, this::restore);
+    }
+    
+    /**
+     * Returns a forecast for the given location key, fetching it synchronously only when no usable
+     * series is held yet. A series that ran past its end is still returned (callers see it no longer
+     * covers "now" and flag it stale) for up to max-stale while one background refresh runs.
+     */
+    public HourlyForecast getForecast(String locationKey) {
+        if (locationKey == null) {
+            return null;
+        }
+        long now = Instant.now().getEpochSecond();
+        HourlyForecast forecast = forecasts.get(locationKey);
+        if (forecast != null && forecast.covers(now)) {
+            return forecast;
+        }
+        if (forecast != null && now - forecast.endEpochSecond() <= apiConfig.getMaxStale().toSeconds()) {
+            refreshAsync(locationKey);
+            return forecast;
+        }
+        
+        HourlyForecast fetched = fetchForecast(locationKey);
+        if (fetched != null) {
+            store(locationKey, fetched);
+            return fetched;
+        }
+        return null;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.external.weather-refresh-interval:PT6H}",
+               initialDelayString = "${app.external.weather-refresh-interval:PT6H}")
+    public void refreshForecasts() {
+        pruneUnusedForecasts();
+        if (forecasts.isEmpty() || !systemSettingsService.isApiEnabled("weather")) {
+            return;
+        }
+        log.info("Refreshing weather forecasts for {} locations", forecasts.size());
+        // Every key is queued at once, so the batch client sends them as few multi-location requests;
+        // results are stored as they arrive instead of holding up the scheduler thread
+        for (String locationKey : forecasts.keySet()) {
+            weatherBatchClient.fetch(locationKey).whenComplete((forecast, error) -> {
+                if (forecast != null) {
+                    store(locationKey, forecast);
+                } else {
+                    log.warn("Keeping previous forecast for {}: {}", locationKey,
+                            error != null ? error.getMessage() : "empty response");
+                }
+            });
+        }
+    }
+    
+    /**
+     * Appends the current temperature of every held location to its history series.
+     */
+    @Scheduled(fixedRateString = "${app.history.sample-interval:PT1M}")
+    public void recordHistory() {
+        long now = Instant.now().getEpochSecond();
+        forecasts.forEach((locationKey, forecast) -> {
+            // Past its window the series would only repeat its last hour
+            if (forecast.covers(now)) {
+                timeSeriesStore.append(TimeSeriesStore.TEMPERATURE, locationKey, now, forecast.temperatureAt(now));
+            }
+        });
+    }
+    
+    @EventListener
+    public void onLocationChanged(LocationChangedEvent event) {
+        // Other displays may still be at the old location
+        if (event.oldLocationKey() != null && !locationService.isLocationInUse(event.oldLocationKey())
+                && forecasts.remove(event.oldLocationKey()) != null) {
+            log.info("Evicted weather forecast for old location {}", event.oldLocationKey());
+        }
+        if (event.newLocationKey() != null && !forecasts.containsKey(event.newLocationKey())) {
+            CompletableFuture.runAsync(() -> getForecast(event.newLocationKey()))
+                    .exceptionally(e -> {
+                        log.warn("Weather prefetch for {} failed: {}", event.newLocationKey(), e.getMessage());
+                        return null;
+                    });
+        }
+    }
+    
+    private void pruneUnusedForecasts() {
+        // Displays that went idle are dropped from the location service without a location change event
+        if (forecasts.keySet().removeIf(locationKey -> !locationService.isLocationInUse(locationKey))) {
+            widgetSnapshotService.prune(SNAPSHOT_WIDGET, locationKey -> !locationService.isLocationInUse(locationKey));
+            log.info("Evicted weather forecasts of locations no display is at anymore");
+        }
+    }
+    
+    private void store(String locationKey, HourlyForecast forecast) {
+        forecasts.put(locationKey, forecast);
+        widgetSnapshotService.save(SNAPSHOT_WIDGET, locationKey, forecast.toOpenMeteo(objectMapper));
+    }
+    
+    private void restore(List<WidgetSnapshot> snapshots) {
+        for (WidgetSnapshot snapshot : snapshots) {
+            JsonNode json = widgetSnapshotService.readJson(snapshot);
+            if (json == null) {
+                continue;
+            }
+            try {
+                forecasts.putIfAbsent(snapshot.getCacheKey(), HourlyForecast.fromOpenMeteo(json, snapshot.getFetchedAt()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring unreadable forecast snapshot {}: {}", snapshot.getId(), e.getMessage());
+            }
+        }
+    }
+    
+    private void refreshAsync(String locationKey) {
+        if (!refreshing.add(locationKey)) {
+            return;
+        }
+        weatherBatchClient.fetch(locationKey).whenComplete((forecast, error) -> {
+            try {
+                if (forecast != null) {
+                    store(locationKey, forecast);
+                } else {
+                    log.warn("Background forecast refresh for {} failed: {}", locationKey,
+                            error != null ? error.getMessage() : "empty response");
+                }
+            } finally {
+                refreshing.remove(locationKey);
+            }
+        });
+    }
+    
+    private HourlyForecast fetchForecast(String locationKey) {
+        try {
+            HourlyForecast forecast = weatherBatchClient.fetch(locationKey)
+                    .get(systemSettingsService.getApiTimeout(), TimeUnit.SECONDS);
+            log.info("Weather forecast fetched for {}: {} hours", locationKey, forecast.size());
+            return forecast;
+        } catch (Exception e) {
+            log.error("Error fetching weather forecast for {}: {}", locationKey, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.dpk.assistants.smart_screensaver.cache.WidgetCache;
+import in.dpk.assistants.smart_screensaver.entity.WidgetSnapshot;
+import in.dpk.assistants.smart_screensaver.repository.WidgetSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Persists the last successful payload of each external widget to H2 and hands them back at startup,
+ * so caches start warm and the first render shows real data instead of waiting on every upstream.
+ * Writes are coalesced per widget/key and flushed in one batch on a short schedule.
+ */
+@Service
+@Slf4j
+public class WidgetSnapshotService {
+    
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+    
+    private final WidgetSnapshotRepository widgetSnapshotRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, WidgetSnapshot> pending = new ConcurrentHashMap<>();
+    private final ExecutorService restoreExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "widget-snapshot-restore");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final CompletableFuture<Map<String, List<WidgetSnapshot>>> loaded;
+    
+    public WidgetSnapshotService(WidgetSnapshotRepository widgetSnapshotRepository) {
+        this.widgetSnapshotRepository = widgetSnapshotRepository;
+        // Load in the background so no bean construction waits on it
+        this.loaded = CompletableFuture.supplyAsync(this::loadAll, restoreExecutor);
+    }
+    
+    /**
+     * Runs the consumer on the restore thread with the persisted snapshots of a widget once they
+     * have been loaded, never on the caller's thread.
+     */
+    public void whenLoaded(String widget, Consumer<List<WidgetSnapshot>> consumer) {
+        loaded.exceptionally(e -> {
+                    log.warn("Could not load widget snapshots: {}", e.getMessage());
+                    return Map.of();
+                })
+                .thenAcceptAsync(all -> consumer.accept(all.getOrDefault(widget, List.of())), restoreExecutor)
+                .exceptionally(e -> {
+                    log.warn("Could not restore {} snapshots: {}", widget, e.getMessage());
+                    return null;
+                });
+    }
+    
+    /**
+     * Persists every value the cache loads under the cache name and seeds the cache from the
+     * persisted snapshots once they are loaded.
+     */
+    public void attach(WidgetCache<Map<String, Object>> cache) {
+        cache.onLoad((key, value) -> save(cache.getName(), key, value));
+        whenLoaded(cache.getName(), snapshots -> restore(cache, snapshots));
+    }
+    
+    public void restore(WidgetCache<Map<String, Object>> cache, List<WidgetSnapshot> snapshots) {
+        for (WidgetSnapshot snapshot : snapshots) {
+            cache.restore(snapshot.getCacheKey(), readPayload(snapshot), snapshot.getFetchedAt());
+        }
+        if (!snapshots.isEmpty()) {
+            log.info("Restored {} {} entries from snapshots", snapshots.size(), cache.getName());
+        }
+    }
+    
+    public void save(String widget, String cacheKey, Object payload) {
+        try {
+            String json = objectMapper.writeValueAsString(payload);
+            String id = WidgetSnapshot.idOf(widget, cacheKey);
+            pending.put(id, new WidgetSnapshot(id, widget, cacheKey, json, System.currentTimeMillis()));
+        } catch (Exception e) {
+            log.warn("Could not serialize {} snapshot for {}: {}", widget, cacheKey, e.getMessage());
+        }
+    }
+    
+    /**
+     * Deletes the persisted and pending snapshots of a widget whose cache key matches.
+     */
+    public void prune(String widget, Predicate<String> cacheKeyFilter) {
+        pending.values().removeIf(snapshot -> widget.equals(snapshot.getWidget()) && cacheKeyFilter.test(snapshot.getCacheKey()));
+        try {
+            List<String> ids = widgetSnapshotRepository.findByWidget(widget).stream()
+                    .filter(snapshot -> cacheKeyFilter.test(snapshot.getCacheKey()))
+                    .map(WidgetSnapshot::getId)
+                    .toList();
+            if (!ids.isEmpty()) {
+                widgetSnapshotRepository.deleteAllById(ids);
+                log.info("Pruned {} {} snapshots", ids.size(), widget);
+            }
+        } catch (Exception e) {
+            log.warn("Could not prune {} snapshots: {}", widget, e.getMessage());
+        }
+    }
+    
+    public JsonNode readJson(WidgetSnapshot snapshot) {
+        try {
+            return objectMapper.readTree(snapshot.getPayload());
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable snapshot {}: {}", snapshot.getId(), e.getMessage());
+            return null;
+        }
+    }
+    
+    public Map<String, Object> readPayload(WidgetSnapshot snapshot) {
+        try {
+            return objectMapper.readValue(snapshot.getPayload(), PAYLOAD_TYPE);
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable snapshot {}: {}", snapshot.getId(), e.getMessage());
+            return null;
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.snapshot.flush-interval:PT10S}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<WidgetSnapshot> batch = new ArrayList<>();
+        for (String id : new ArrayList<>(pending.keySet())) {
+            WidgetSnapshot snapshot = pending.remove(id);
+            if (snapshot != null) {
+                batch.add(snapshot);
+            }
+        }
+        try {
+            widgetSnapshotRepository.saveAll(batch);
+            log.debug("Persisted {} widget snapshots", batch.size());
+        } catch (Exception e) {
+            log.warn("Could not persist widget snapshots: {}", e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        restoreExecutor.shutdownNow();
+    }
+    
+    private Map<String, List<WidgetSnapshot>> loadAll() {
+        List<WidgetSnapshot> snapshots = widgetSnapshotRepository.findAll();
+        log.info("Loaded {} widget snapshots for warm start", snapshots.size());
+        return snapshots.stream().collect(Collectors.groupingBy(WidgetSnapshot::getWidget));
+    }
+}
@@ -0,0 +1,284 @@
+package in.dpk.assistants.smart_screensaver.timeseries;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * One fixed-size, memory-mapped segment file of a series. Timestamps (epoch seconds) are stored as
+ * delta-of-deltas and values as the XOR with the previous value, as in Facebook's Gorilla paper, so
+ * regular samples of a slowly changing value cost one to two bytes each. The encoder state is kept in
+ * the file header, which is rewritten after every append, so a reopened segment continues where it
+ * stopped.
+ */
+final class Segment {
+    
+    static final int HEADER_BYTES = 64;
+    
+    private static final int MAGIC = 0x54534731; // "TSG1"
+    private static final int COUNT = 4;
+    private static final int BIT_POSITION = 8;
+    private static final int FIRST_TIME = 16;
+    private static final int LAST_TIME = 24;
+    private static final int LAST_DELTA = 32;
+    private static final int LAST_VALUE = 40;
+    private static final int LEADING = 48;
+    private static final int TRAILING = 52;
+    // Largest encoding of one sample: '1111' + 32-bit delta-of-delta, '11' + 5 + 6 + 64 value bits
+    private static final int MAX_SAMPLE_BITS = 4 + 32 + 2 + 5 + 6 + 64;
+    
+    private final MappedByteBuffer buffer;
+    private final long capacityBits;
+    private final boolean writable;
+    
+    private int count;
+    private long bitPosition;
+    private long firstTime;
+    private long lastTime;
+    private long lastDelta;
+    private long lastValue;
+    // Position of the meaningful XOR bits last written with an explicit header, -1 before the first one
+    private int leading = -1;
+    private int trailing;
+    
+    private Segment(MappedByteBuffer buffer, boolean writable) {
+        this.buffer = buffer;
+        this.capacityBits = (long) (buffer.capacity() - HEADER_BYTES) * 8;
+        this.writable = writable;
+    }
+    
+    static Segment create(Path file, int sizeBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Segment segment = new Segment(channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes), true);
+            segment.buffer.putInt(0, MAGIC);
+            segment.writeHeader();
+            return segment;
+        }
+    }
+    
+    static Segment open(Path file, boolean writable) throws IOException {
+        try (FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    0, channel.size());
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a time series segment: " + file);
+            }
+            Segment segment = new Segment(buffer, writable);
+            segment.count = buffer.getInt(COUNT);
+            segment.bitPosition = buffer.getLong(BIT_POSITION);
+            segment.firstTime = buffer.getLong(FIRST_TIME);
+            segment.lastTime = buffer.getLong(LAST_TIME);
+            segment.lastDelta = buffer.getLong(LAST_DELTA);
+            segment.lastValue = buffer.getLong(LAST_VALUE);
+            segment.leading = buffer.getInt(LEADING);
+            segment.trailing = buffer.getInt(TRAILING);
+            return segment;
+        }
+    }
+    
+    /**
+     * Appends a sample no older than the last one. Returns false, leaving the segment unchanged, when
+     * it is full or the gap cannot be encoded; the caller then starts a new segment.
+     */
+    boolean append(long epochSecond, double value) {
+        if (!writable) {
+            throw new IllegalStateException("Segment is read-only");
+        }
+        if (count > 0 && epochSecond < lastTime) {
+            throw new IllegalArgumentException("Sample at " + epochSecond + " is older than " + lastTime);
+        }
+        long valueBits = Double.doubleToRawLongBits(value);
+        if (count == 0) {
+            if (capacityBits < 64) {
+                return false;
+            }
+            writeBits(valueBits, 64);
+            firstTime = epochSecond;
+            lastDelta = 0;
+        } else {
+            long delta = epochSecond - lastTime;
+            long deltaOfDelta = delta - lastDelta;
+            if (bitPosition + MAX_SAMPLE_BITS > capacityBits
+                    || deltaOfDelta < Integer.MIN_VALUE || deltaOfDelta > Integer.MAX_VALUE) {
+                return false;
+            }
+            writeDeltaOfDelta(deltaOfDelta);
+            writeValue(valueBits);
+            lastDelta = delta;
+        }
+        lastTime = epochSecond;
+        lastValue = valueBits;
+        count++;
+        writeHeader();
+        return true;
+    }
+    
+    /**
+     * Adds the samples with {@code from <= time <= to} to {@code out}, oldest first.
+     */
+    void read(long from, long to, List<TimeSeriesStore.Point> out) {
+        if (count == 0 || lastTime < from || firstTime > to) {
+            return;
+        }
+        Reader reader = new Reader();
+        long time = firstTime;
+        long delta = 0;
+        long valueBits = reader.readBits(64);
+        int blockLeading = 0;
+        int blockTrailing = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                delta += reader.readDeltaOfDelta();
+                time += delta;
+                if (reader.readBit() == 1) {
+                    if (reader.readBit() == 1) {
+                        blockLeading = (int) reader.readBits(5);
+                        int meaningful = (int) reader.readBits(6) + 1;
+                        blockTrailing = 64 - blockLeading - meaningful;
+                    }
+                    valueBits ^= reader.readBits(64 - blockLeading - blockTrailing) << blockTrailing;
+                }
+            }
+            if (time > to) {
+                return;
+            }
+            if (time >= from) {
+                out.add(new TimeSeriesStore.Point(time, Double.longBitsToDouble(valueBits)));
+            }
+        }
+    }
+    
+    int count() {
+        return count;
+    }
+    
+    long firstTime() {
+        return firstTime;
+    }
+    
+    long lastTime() {
+        return lastTime;
+    }
+    
+    int usedBytes() {
+        return HEADER_BYTES + (int) ((bitPosition + 7) >>> 3);
+    }
+    
+    void force() {
+        if (writable) {
+            buffer.force();
+        }
+    }
+    
+    private void writeDeltaOfDelta(long deltaOfDelta) {
+        if (deltaOfDelta == 0) {
+            writeBits(0, 1);
+        } else if (deltaOfDelta >= -64 && deltaOfDelta <= 63) {
+            writeBits(0b10, 2);
+            writeBits(deltaOfDelta, 7);
+        } else if (deltaOfDelta >= -256 && deltaOfDelta <= 255) {
+            writeBits(0b110, 3);
+            writeBits(deltaOfDelta, 9);
+        } else if (deltaOfDelta >= -2048 && deltaOfDelta <= 2047) {
+            writeBits(0b1110, 4);
+            writeBits(deltaOfDelta, 12);
+        } else {
+            writeBits(0b1111, 4);
+            writeBits(deltaOfDelta, 32);
+        }
+    }
+    
+    private void writeValue(long valueBits) {
+        long xor = valueBits ^ lastValue;
+        if (xor == 0) {
+            writeBits(0, 1);
+            return;
+        }
+        int xorLeading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int xorTrailing = Long.numberOfTrailingZeros(xor);
+        if (leading >= 0 && xorLeading >= leading && xorTrailing >= trailing) {
+            // Fits in the previous block of meaningful bits
+            writeBits(0b10, 2);
+            writeBits(xor >>> trailing, 64 - leading - trailing);
+        } else {
+            int meaningful = 64 - xorLeading - xorTrailing;
+            writeBits(0b11, 2);
+            writeBits(xorLeading, 5);
+            writeBits(meaningful - 1, 6);
+            writeBits(xor >>> xorTrailing, meaningful);
+            leading = xorLeading;
+            trailing = xorTrailing;
+        }
+    }
+    
+    /**
+     * Writes the low {@code bits} bits of {@code value}, most significant first. Bits are set and
+     * cleared explicitly, since data past the header's bit position may be left over from a crash.
+     */
+    private void writeBits(long value, int bits) {
+        for (int i = bits - 1; i >= 0; i--) {
+            int index = HEADER_BYTES + (int) (bitPosition >>> 3);
+            int mask = 0x80 >>> (int) (bitPosition & 7);
+            byte current = buffer.get(index);
+            buffer.put(index, (byte) (((value >>> i) & 1) != 0 ? current | mask : current & ~mask));
+            bitPosition++;
+        }
+    }
+    
+    private void writeHeader() {
+        buffer.putInt(COUNT, count);
+        buffer.putLong(BIT_POSITION, bitPosition);
+        buffer.putLong(FIRST_TIME, firstTime);
+        buffer.putLong(LAST_TIME, lastTime);
+        buffer.putLong(LAST_DELTA, lastDelta);
+        buffer.putLong(LAST_VALUE, lastValue);
+        buffer.putInt(LEADING, leading);
+        buffer.putInt(TRAILING, trailing);
+    }
+    
+    private final class Reader {
+        
+        private long position;
+        
+        int readBit() {
+            int index = HEADER_BYTES + (int) (position >>> 3);
+            int bit = (buffer.get(index) >>> (7 - (int) (position & 7))) & 1;
+            position++;
+            return bit;
+        }
+        
+        long readBits(int bits) {
+            long value = 0;
+            for (int i = 0; i < bits; i++) {
+                value = (value << 1) | readBit();
+            }
+            return value;
+        }
+        
+        long readDeltaOfDelta() {
+            if (readBit() == 0) {
+                return 0;
+            }
+            if (readBit() == 0) {
+                return signExtend(readBits(7), 7);
+            }
+            if (readBit() == 0) {
+                return signExtend(readBits(9), 9);
+            }
+            if (readBit() == 0) {
+                return signExtend(readBits(12), 12);
+            }
+            return signExtend(readBits(32), 32);
+        }
+        
+        private long signExtend(long value, int bits) {
+            return (value << (64 - bits)) >> (64 - bits);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package in.dpk.assistants.smart_screensaver.timeseries;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only history of widget values, one series per metric and key (a location, route or API).
+ * Each series is a directory of fixed-size {@link Segment} files named after their first timestamp;
+ * only the segment being appended to stays mapped, older ones are mapped read-only while a query
+ * needs them. At one sample a minute a 16 KB segment holds about a week of a slowly changing value.
+ */
+@Component
+@Slf4j
+public class TimeSeriesStore {
+    
+    public static final String TEMPERATURE = "temperature";
+    public static final String TRAVEL_TIME = "travel-time";
+    public static final String API_LATENCY = "api-latency";
+    
+    private static final String SEGMENT_SUFFIX = ".seg";
+    
+    private final Path root;
+    private final int segmentBytes;
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    
+    public TimeSeriesStore(@Value("${app.history.directory:./data/history}") String directory,
+                           @Value("${app.history.segment-size:16384}") int segmentBytes) {
+        this.root = Paths.get(directory);
+        this.segmentBytes = Math.max(segmentBytes, Segment.HEADER_BYTES + 64);
+    }
+    
+    /**
+     * Appends a sample to a series, creating it on first use. Samples older than the last one of the
+     * series are dropped; returns whether the sample was stored.
+     */
+    public boolean append(String metric, String key, long epochSecond, double value) {
+        try {
+            return seriesFor(metric, key).append(epochSecond, value);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not append {} sample for {}: {}", metric, key, e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Samples of a series with {@code from <= time <= to} (epoch seconds), oldest first.
+     */
+    public List<Point> query(String metric, String key, long from, long to) {
+        List<Point> points = new ArrayList<>();
+        if (from > to) {
+            return points;
+        }
+        try {
+            if (series.containsKey(seriesId(metric, key)) || Files.isDirectory(directoryOf(metric, key))) {
+                seriesFor(metric, key).read(from, to, points);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read {} history for {}: {}", metric, key, e.getMessage());
+        }
+        return points;
+    }
+    
+    /**
+     * Averages samples into buckets of {@code stepSeconds}, each stamped with its bucket start.
+     */
+    public static List<Point> downsample(List<Point> points, long stepSeconds) {
+        if (stepSeconds <= 1 || points.isEmpty()) {
+            return points;
+        }
+        List<Point> buckets = new ArrayList<>();
+        long bucket = Math.floorDiv(points.get(0).epochSecond(), stepSeconds);
+        double sum = 0;
+        int n = 0;
+        for (Point point : points) {
+            long pointBucket = Math.floorDiv(point.epochSecond(), stepSeconds);
+            if (pointBucket != bucket) {
+                buckets.add(new Point(bucket * stepSeconds, sum / n));
+                bucket = pointBucket;
+                sum = 0;
+                n = 0;
+            }
+            sum += point.value();
+            n++;
+        }
+        buckets.add(new Point(bucket * stepSeconds, sum / n));
+        return buckets;
+    }
+    
+    /**
+     * Every series on disk, as {metric, key} pairs.
+     */
+    public List<SeriesId> list() {
+        List<SeriesId> ids = new ArrayList<>();
+        if (!Files.isDirectory(root)) {
+            return ids;
+        }
+        try (Stream<Path> metrics = Files.list(root)) {
+            for (Path metricDir : metrics.filter(Files::isDirectory).sorted().toList()) {
+                try (Stream<Path> keys = Files.list(metricDir)) {
+                    keys.filter(Files::isDirectory).sorted().forEach(keyDir -> ids.add(
+                            new SeriesId(decode(metricDir.getFileName().toString()), decode(keyDir.getFileName().toString()))));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list time series in {}: {}", root, e.getMessage());
+        }
+        return ids;
+    }
+    
+    /**
+     * Whether a metric or key can name a series. URLEncoder leaves "." and ".." as they are, and those
+     * would resolve to the store's or a parent directory.
+     */
+    public static boolean isValidName(String name) {
+        return name != null && !name.isEmpty() && !".".equals(name) && !"..".equals(name);
+    }
+    
+    @PreDestroy
+    public void close() {
+        series.values().forEach(Series::force);
+    }
+    
+    private Series seriesFor(String metric, String key) throws IOException {
+        String id = seriesId(metric, key);
+        Series existing = series.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        Path directory = directoryOf(metric, key);
+        Files.createDirectories(directory);
+        return series.computeIfAbsent(id, ignored -> new Series(directory));
+    }
+    
+    private Path directoryOf(String metric, String key) {
+        Path directory = root.resolve(encode(metric)).resolve(encode(key)).normalize();
+        if (!isValidName(metric) || !isValidName(key) || !directory.startsWith(root.normalize())) {
+            throw new IllegalArgumentException("Invalid series " + metric + "/" + key);
+        }
+        return directory;
+    }
+    
+    private static String seriesId(String metric, String key) {
+        return encode(metric) + "/" + encode(key);
+    }
+    
+    private static String encode(String name) {
+        return URLEncoder.encode(name, StandardCharsets.UTF_8);
+    }
+    
+    private static String decode(String name) {
+        return URLDecoder.decode(name, StandardCharsets.UTF_8);
+    }
+    
+    public record Point(long epochSecond, double value) {
+    }
+    
+    public record SeriesId(String metric, String key) {
+    }
+    
+    private final class Series {
+        
+        private final Path directory;
+        private Segment tail;
+        
+        Series(Path directory) {
+            this.directory = directory;
+        }
+        
+        synchronized boolean append(long epochSecond, double value) throws IOException {
+            if (tail == null) {
+                List<Path> files = segmentFiles();
+                tail = files.isEmpty() ? newSegment(epochSecond) : Segment.open(files.get(files.size() - 1), true);
+            }
+            if (tail.count() > 0 && epochSecond < tail.lastTime()) {
+                log.debug("Dropping out-of-order sample at {} in {}", epochSecond, directory);
+                return false;
+            }
+            if (tail.append(epochSecond, value)) {
+                return true;
+            }
+            tail.force();
+            tail = newSegment(epochSecond);
+            return tail.append(epochSecond, value);
+        }
+        
+        synchronized void read(long from, long to, List<Point> out) throws IOException {
+            List<Path> files = segmentFiles();
+            for (int i = 0; i < files.size(); i++) {
+                // A segment ends where the next one starts, so earlier segments can be skipped by name
+                if (firstTimeOf(files.get(i)) > to) {
+                    break;
+                }
+                if (i + 1 < files.size() && firstTimeOf(files.get(i + 1)) < from) {
+                    continue;
+                }
+                boolean isTail = i == files.size() - 1 && tail != null;
+                Segment segment = isTail ? tail : Segment.open(files.get(i), false);
+                segment.read(from, to, out);
+            }
+        }
+        
+        synchronized void force() {
+            if (tail != null) {
+                tail.force();
+            }
+        }
+        
+        private Segment newSegment(long firstTime) throws IOException {
+            long name = firstTime;
+            while (Files.exists(segmentPath(name))) {
+                name++;
+            }
+            return Segment.create(segmentPath(name), segmentBytes);
+        }
+        
+        private Path segmentPath(long firstTime) {
+            // Zero-padded so names sort by time
+            return directory.resolve(String.format("%019d%s", firstTime, SEGMENT_SUFFIX));
+        }
+        
+        private List<Path> segmentFiles() throws IOException {
+            try (Stream<Path> files = Files.list(directory)) {
+                return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+            }
+        }
+        
+        private long firstTimeOf(Path file) {
+            String name = file.getFileName().toString();
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        }
+    }
+}
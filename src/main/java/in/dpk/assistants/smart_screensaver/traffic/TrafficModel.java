@@ -0,0 +1,110 @@
+package in.dpk.assistants.smart_screensaver.traffic;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+
+/**
+ * Expected travel time of one route per day of week and 15 minute slot (7 x 96 buckets).
+ * Lookups are a single array read. Observed travel times are folded into their bucket with an
+ * exponentially weighted moving average, so the table tracks the route's real history over time.
+ */
+public class TrafficModel {
+    
+    public static final int DAYS = 7;
+    public static final int SLOTS_PER_DAY = 96;
+    public static final int SLOT_MINUTES = 15;
+    
+    public enum Level {
+        LIGHT, MODERATE, HEAVY
+    }
+    
+    private final float[] minutes;
+    private final float freeFlowMinutes;
+    private final float distanceKm;
+    private final float alpha;
+    private volatile long samples;
+    
+    public TrafficModel(float freeFlowMinutes, float distanceKm, float alpha) {
+        this.minutes = new float[DAYS * SLOTS_PER_DAY];
+        this.freeFlowMinutes = freeFlowMinutes;
+        this.distanceKm = distanceKm;
+        this.alpha = alpha;
+        Arrays.fill(minutes, freeFlowMinutes);
+    }
+    
+    /**
+     * Seeds the table with the usual commute profile: weekday rush hours around 7-10 and 17-20,
+     * free flow otherwise. Observed samples replace the seed as they come in.
+     */
+    public static TrafficModel seeded(float freeFlowMinutes, float distanceKm, float alpha) {
+        TrafficModel model = new TrafficModel(freeFlowMinutes, distanceKm, alpha);
+        for (int day = 0; day < 5; day++) {
+            model.fillHours(day, 7, 10, freeFlowMinutes * 1.75f);
+            model.fillHours(day, 17, 20, freeFlowMinutes * 2.0f);
+        }
+        return model;
+    }
+    
+    public static int slot(int hour, int minute) {
+        return hour * (60 / SLOT_MINUTES) + minute / SLOT_MINUTES;
+    }
+    
+    public float estimateMinutes(DayOfWeek day, int hour, int minute) {
+        return minutes[index(day, slot(hour, minute))];
+    }
+    
+    public Level level(DayOfWeek day, int hour, int minute) {
+        float ratio = estimateMinutes(day, hour, minute) / freeFlowMinutes;
+        if (ratio >= 1.5f) {
+            return Level.HEAVY;
+        }
+        return ratio >= 0.9f ? Level.MODERATE : Level.LIGHT;
+    }
+    
+    /**
+     * Folds an observed travel time into the bucket it was observed in.
+     */
+    public synchronized void record(DayOfWeek day, int hour, int minute, float observedMinutes) {
+        if (!(observedMinutes > 0)) {
+            return;
+        }
+        int index = index(day, slot(hour, minute));
+        // Single float writes are atomic, so readers never need the lock
+        minutes[index] += alpha * (observedMinutes - minutes[index]);
+        samples++;
+    }
+    
+    public float getFreeFlowMinutes() {
+        return freeFlowMinutes;
+    }
+    
+    public float getDistanceKm() {
+        return distanceKm;
+    }
+    
+    public long getSamples() {
+        return samples;
+    }
+    
+    public synchronized float[] toArray() {
+        return minutes.clone();
+    }
+    
+    /**
+     * Restores a previously saved table; tables of the wrong shape are ignored.
+     */
+    public synchronized void restore(float[] saved, long savedSamples) {
+        if (saved != null && saved.length == minutes.length) {
+            System.arraycopy(saved, 0, minutes, 0, minutes.length);
+            samples = savedSamples;
+        }
+    }
+    
+    private void fillHours(int day, int fromHour, int toHour, float value) {
+        Arrays.fill(minutes, day * SLOTS_PER_DAY + slot(fromHour, 0), day * SLOTS_PER_DAY + slot(toHour, 0), value);
+    }
+    
+    private static int index(DayOfWeek day, int slot) {
+        return (day.getValue() - 1) * SLOTS_PER_DAY + slot;
+    }
+}
@@ -0,0 +1,117 @@
+package in.dpk.assistants.smart_screensaver.transit;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming reader for GTFS text files. Only the current row is held in memory, so files of any size
+ * can be read; columns are looked up by header name because feeds order them freely.
+ */
+public class GtfsCsvReader implements Closeable {
+    
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final List<String> row = new ArrayList<>();
+    
+    public GtfsCsvReader(Path file) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        String header = reader.readLine();
+        if (header != null) {
+            // Strip a UTF-8 byte order mark, common in feeds exported from spreadsheets
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1);
+            }
+            parse(header, row);
+            for (int i = 0; i < row.size(); i++) {
+                columns.put(row.get(i).trim(), i);
+            }
+            row.clear();
+        }
+    }
+    
+    /**
+     * Column index for a header name, or -1 if the file does not have the column.
+     */
+    public int column(String name) {
+        return columns.getOrDefault(name, -1);
+    }
+    
+    public boolean next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                parse(line, row);
+                return true;
+            }
+        }
+        row.clear();
+        return false;
+    }
+    
+    /**
+     * Value of a column in the current row, or an empty string if the column is missing.
+     */
+    public String get(int column) {
+        return column >= 0 && column < row.size() ? row.get(column) : "";
+    }
+    
+    /**
+     * Parses a GTFS time ("H:MM:SS", hours may exceed 23 for trips running past midnight) into seconds
+     * after the service day's midnight, or -1 if the value is empty or malformed.
+     */
+    public static int parseTime(String value) {
+        String time = value.trim();
+        int first = time.indexOf(':');
+        int second = time.indexOf(':', first + 1);
+        if (first <= 0 || second <= first) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(time.substring(0, first)) * 3600
+                    + Integer.parseInt(time.substring(first + 1, second)) * 60
+                    + Integer.parseInt(time.substring(second + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    static void parse(String line, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+}
@@ -0,0 +1,411 @@
+package in.dpk.assistants.smart_screensaver.transit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the binary stop-time index from a GTFS static feed directory.
+ * <p>
+ * Every file is streamed row by row. stop_times.txt rows are packed into one long each
+ * (stop, departure seconds, trip), sorted as primitives and written out as per-stop columns, so
+ * memory use is proportional to the number of stop times, never to the size of the text files.
+ */
+@Slf4j
+public final class GtfsIngestor {
+    
+    private static final int STOP_BITS = 22;
+    private static final int TIME_BITS = 19;
+    private static final int TRIP_BITS = 22;
+    private static final List<String> FEED_FILES = List.of(
+            "calendar.txt", "calendar_dates.txt", "routes.txt", "trips.txt", "stops.txt", "stop_times.txt");
+    
+    private final Map<String, Integer> services = new HashMap<>();
+    private final List<Integer> serviceDays = new ArrayList<>();
+    private final List<Integer> serviceStart = new ArrayList<>();
+    private final List<Integer> serviceEnd = new ArrayList<>();
+    private long[] added = new long[0];
+    private long[] removed = new long[0];
+    
+    private final Map<String, Integer> routes = new HashMap<>();
+    private final List<String> routeNames = new ArrayList<>();
+    
+    private final Map<String, Integer> trips = new HashMap<>();
+    private final List<String> tripIds = new ArrayList<>();
+    private final List<String> tripHeadsigns = new ArrayList<>();
+    private final List<Integer> tripService = new ArrayList<>();
+    private final List<Integer> tripRoute = new ArrayList<>();
+    
+    private final Map<String, Integer> stops = new HashMap<>();
+    private final List<String> stopIds = new ArrayList<>();
+    private final Map<String, String> stopNames = new HashMap<>();
+    
+    private long[] stopTimes = new long[1 << 16];
+    // (trip, stop, stop_sequence) per row, so realtime updates can be matched by sequence
+    private long[] tripStops = new long[1 << 16];
+    private int stopTimeCount;
+    
+    private GtfsIngestor() {
+    }
+    
+    /**
+     * Reads the feed in {@code feedDir} and writes the index to {@code indexFile}, replacing it atomically.
+     */
+    public static void build(Path feedDir, Path indexFile) throws IOException {
+        long started = System.currentTimeMillis();
+        // Taken before reading, so a file replaced during ingestion is picked up by the next check
+        long fingerprint = fingerprint(feedDir);
+        GtfsIngestor ingestor = new GtfsIngestor();
+        ingestor.readCalendar(feedDir.resolve("calendar.txt"));
+        ingestor.readCalendarDates(feedDir.resolve("calendar_dates.txt"));
+        ingestor.readRoutes(feedDir.resolve("routes.txt"));
+        ingestor.readTrips(feedDir.resolve("trips.txt"));
+        ingestor.readStops(feedDir.resolve("stops.txt"));
+        ingestor.readStopTimes(feedDir.resolve("stop_times.txt"));
+        
+        Path parent = indexFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "gtfs-index", ".tmp");
+        try {
+            ingestor.write(temp, feedPath(feedDir), fingerprint);
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("Indexed {} stop times of {} trips at {} stops in {} ms",
+                ingestor.stopTimeCount, ingestor.tripIds.size(), ingestor.stopIds.size(),
+                System.currentTimeMillis() - started);
+    }
+    
+    /**
+     * Whether {@code indexFile} was built from {@code feedDir} as it is now: same feed path, and none of the
+     * ingested files added, removed, resized or modified since.
+     */
+    public static boolean isCurrent(Path feedDir, Path indexFile) {
+        if (!Files.isRegularFile(indexFile)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != StopTimeIndex.MAGIC || in.readInt() != StopTimeIndex.VERSION) {
+                return false;
+            }
+            byte[] path = new byte[in.readInt()];
+            in.readFully(path);
+            return feedPath(feedDir).equals(new String(path, StandardCharsets.UTF_8))
+                    && in.readLong() == fingerprint(feedDir);
+        } catch (IOException e) {
+            log.debug("Could not read GTFS index header {}: {}", indexFile, e.getMessage());
+            return false;
+        }
+    }
+    
+    private static String feedPath(Path feedDir) {
+        return feedDir.toAbsolutePath().normalize().toString();
+    }
+    
+    private static long fingerprint(Path feedDir) throws IOException {
+        long hash = 17;
+        for (String name : FEED_FILES) {
+            Path file = feedDir.resolve(name);
+            hash = 31 * hash + name.hashCode();
+            if (Files.exists(file)) {
+                hash = 31 * hash + Files.size(file);
+                hash = 31 * hash + Files.getLastModifiedTime(file).toMillis();
+            } else {
+                hash = 31 * hash - 1;
+            }
+        }
+        return hash;
+    }
+    
+    private void readCalendar(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        String[] days = {"monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"};
+        try (GtfsCsvReader reader = new GtfsCsvReader(file)) {
+            int serviceColumn = reader.column("service_id");
+            int startColumn = reader.column("start_date");
+            int endColumn = reader.column("end_date");
+            int[] dayColumns = Arrays.stream(days).mapToInt(reader::column).toArray();
+            while (reader.next()) {
+                int service = service(reader.get(serviceColumn));
+                int mask = 0;
+                for (int day = 0; day < dayColumns.length; day++) {
+                    if ("1".equals(reader.get(dayColumns[day]).trim())) {
+                        mask |= 1 << day;
+                    }
+                }
+                serviceDays.set(service, mask);
+                serviceStart.set(service, parseDate(reader.get(startColumn), 0));
+                serviceEnd.set(service, parseDate(reader.get(endColumn), Integer.MAX_VALUE));
+            }
+        }
+    }
+    
+    private void readCalendarDates(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        LongList addedDates = new LongList();
+        LongList removedDates = new LongList();
+        try (GtfsCsvReader reader = new GtfsCsvReader(file)) {
+            int serviceColumn = reader.column("service_id");
+            int dateColumn = reader.column("date");
+            int typeColumn = reader.column("exception_type");
+            while (reader.next()) {
+                long key = StopTimeIndex.serviceDateKey(service(reader.get(serviceColumn)), parseDate(reader.get(dateColumn), 0));
+                if ("1".equals(reader.get(typeColumn).trim())) {
+                    addedDates.add(key);
+                } else if ("2".equals(reader.get(typeColumn).trim())) {
+                    removedDates.add(key);
+                }
+            }
+        }
+        added = addedDates.sorted();
+        removed = removedDates.sorted();
+    }
+    
+    private void readRoutes(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (GtfsCsvReader reader = new GtfsCsvReader(file)) {
+            int idColumn = reader.column("route_id");
+            int shortNameColumn = reader.column("route_short_name");
+            int longNameColumn = reader.column("route_long_name");
+            while (reader.next()) {
+                String name = reader.get(shortNameColumn).trim();
+                routes.put(reader.get(idColumn).trim(), routeNames.size());
+                routeNames.add(name.isEmpty() ? reader.get(longNameColumn).trim() : name);
+            }
+        }
+    }
+    
+    private void readTrips(Path file) throws IOException {
+        try (GtfsCsvReader reader = new GtfsCsvReader(file)) {
+            int tripColumn = reader.column("trip_id");
+            int routeColumn = reader.column("route_id");
+            int serviceColumn = reader.column("service_id");
+            int headsignColumn = reader.column("trip_headsign");
+            while (reader.next()) {
+                String tripId = reader.get(tripColumn).trim();
+                if (tripId.isEmpty() || trips.containsKey(tripId)) {
+                    continue;
+                }
+                String routeId = reader.get(routeColumn).trim();
+                Integer route = routes.get(routeId);
+                if (route == null) {
+                    // No routes.txt entry, show the raw route id
+                    route = routeNames.size();
+                    routes.put(routeId, route);
+                    routeNames.add(routeId);
+                }
+                trips.put(tripId, tripIds.size());
+                tripIds.add(tripId);
+                tripHeadsigns.add(reader.get(headsignColumn).trim());
+                tripService.add(service(reader.get(serviceColumn)));
+                tripRoute.add(route);
+            }
+        }
+        if (tripIds.size() >= 1 << TRIP_BITS) {
+            throw new IOException("Feed has too many trips: " + tripIds.size());
+        }
+    }
+    
+    private void readStops(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (GtfsCsvReader reader = new GtfsCsvReader(file)) {
+            int idColumn = reader.column("stop_id");
+            int nameColumn = reader.column("stop_name");
+            while (reader.next()) {
+                stopNames.put(reader.get(idColumn).trim(), reader.get(nameColumn).trim());
+            }
+        }
+    }
+    
+    private void readStopTimes(Path file) throws IOException {
+        long skipped = 0;
+        try (GtfsCsvReader reader = new GtfsCsvReader(file)) {
+            int tripColumn = reader.column("trip_id");
+            int stopColumn = reader.column("stop_id");
+            int departureColumn = reader.column("departure_time");
+            int arrivalColumn = reader.column("arrival_time");
+            int sequenceColumn = reader.column("stop_sequence");
+            while (reader.next()) {
+                Integer trip = trips.get(reader.get(tripColumn).trim());
+                int departure = GtfsCsvReader.parseTime(reader.get(departureColumn));
+                if (departure < 0) {
+                    departure = GtfsCsvReader.parseTime(reader.get(arrivalColumn));
+                }
+                // Untimed stops (interpolated by the producer) have no time to index
+                if (trip == null || departure < 0 || departure >= 1 << TIME_BITS) {
+                    skipped++;
+                    continue;
+                }
+                int stop = stop(reader.get(stopColumn).trim());
+                int sequence = parseInt(reader.get(sequenceColumn), StopTimeIndex.NO_SEQUENCE);
+                if (sequence < 0 || sequence > StopTimeIndex.NO_SEQUENCE) {
+                    sequence = StopTimeIndex.NO_SEQUENCE;
+                }
+                if (stopTimeCount == stopTimes.length) {
+                    stopTimes = Arrays.copyOf(stopTimes, stopTimes.length * 2);
+                    tripStops = Arrays.copyOf(tripStops, tripStops.length * 2);
+                }
+                tripStops[stopTimeCount] = StopTimeIndex.tripStopKey(trip, stop, sequence);
+                stopTimes[stopTimeCount++] = ((long) stop << (TIME_BITS + TRIP_BITS))
+                        | ((long) departure << TRIP_BITS) | trip;
+            }
+        }
+        if (skipped > 0) {
+            log.info("Skipped {} stop times without a known trip or time", skipped);
+        }
+        // Sorting the packed values orders rows by stop, then departure
+        Arrays.sort(stopTimes, 0, stopTimeCount);
+        Arrays.sort(tripStops, 0, stopTimeCount);
+    }
+    
+    private void write(Path file, String feedPath, long fingerprint) throws IOException {
+        int stopCount = stopIds.size();
+        int serviceCount = serviceDays.size();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(StopTimeIndex.MAGIC);
+            out.writeInt(StopTimeIndex.VERSION);
+            writeString(out, feedPath);
+            out.writeLong(fingerprint);
+            out.writeInt(stopCount);
+            out.writeInt(stopTimeCount);
+            out.writeInt(tripIds.size());
+            out.writeInt(serviceCount);
+            out.writeInt(routeNames.size());
+            out.writeInt(added.length);
+            out.writeInt(removed.length);
+            
+            // Row offsets per stop, then the departure and trip columns
+            int row = 0;
+            for (int stop = 0; stop <= stopCount; stop++) {
+                while (row < stopTimeCount && stopOf(stopTimes[row]) < stop) {
+                    row++;
+                }
+                out.writeInt(row);
+            }
+            for (int i = 0; i < stopTimeCount; i++) {
+                out.writeInt((int) ((stopTimes[i] >>> TRIP_BITS) & ((1 << TIME_BITS) - 1)));
+            }
+            for (int i = 0; i < stopTimeCount; i++) {
+                out.writeInt((int) (stopTimes[i] & ((1 << TRIP_BITS) - 1)));
+            }
+            
+            for (int service : tripService) {
+                out.writeInt(service);
+            }
+            for (int route : tripRoute) {
+                out.writeInt(route);
+            }
+            for (int service = 0; service < serviceCount; service++) {
+                out.writeInt(serviceDays.get(service));
+                out.writeInt(serviceStart.get(service));
+                out.writeInt(serviceEnd.get(service));
+            }
+            for (long key : added) {
+                out.writeLong(key);
+            }
+            for (long key : removed) {
+                out.writeLong(key);
+            }
+            for (int i = 0; i < stopTimeCount; i++) {
+                out.writeLong(tripStops[i]);
+            }
+            
+            for (String stopId : stopIds) {
+                writeString(out, stopId);
+                writeString(out, stopNames.getOrDefault(stopId, stopId));
+            }
+            for (int trip = 0; trip < tripIds.size(); trip++) {
+                writeString(out, tripIds.get(trip));
+                writeString(out, tripHeadsigns.get(trip));
+            }
+            for (String routeName : routeNames) {
+                writeString(out, routeName);
+            }
+        }
+    }
+    
+    private static int stopOf(long packed) {
+        return (int) (packed >>> (TIME_BITS + TRIP_BITS));
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private int service(String serviceId) {
+        return services.computeIfAbsent(serviceId.trim(), id -> {
+            // Services only known from calendar_dates.txt run on their added dates alone
+            serviceDays.add(0);
+            serviceStart.add(0);
+            serviceEnd.add(0);
+            return serviceDays.size() - 1;
+        });
+    }
+    
+    private int stop(String stopId) throws IOException {
+        Integer stop = stops.get(stopId);
+        if (stop == null) {
+            if (stopIds.size() >= 1 << STOP_BITS) {
+                throw new IOException("Feed has too many stops");
+            }
+            stop = stopIds.size();
+            stops.put(stopId, stop);
+            stopIds.add(stopId);
+        }
+        return stop;
+    }
+    
+    private static int parseDate(String value, int fallback) {
+        return parseInt(value, fallback);
+    }
+    
+    private static int parseInt(String value, int fallback) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+    
+    private static class LongList {
+        private long[] values = new long[64];
+        private int size;
+        
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        long[] sorted() {
+            long[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package in.dpk.assistants.smart_screensaver.transit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Decodes the TripUpdate entities of a GTFS-Realtime FeedMessage as they are read from the stream,
+ * handing each one to a consumer; vehicle positions and alerts are skipped without being decoded.
+ * Field numbers follow gtfs-realtime.proto.
+ */
+public final class GtfsRealtimeDecoder {
+    
+    private static final int CANCELED = 3;
+    
+    private GtfsRealtimeDecoder() {
+    }
+    
+    /**
+     * Decodes a feed and returns the timestamp of its header (seconds since epoch, 0 if absent).
+     */
+    public static long decode(InputStream in, Consumer<TripUpdate> consumer) throws IOException {
+        ProtobufReader reader = new ProtobufReader(in);
+        long feedTimestamp = 0;
+        int tag;
+        while ((tag = reader.readTag()) != 0) {
+            int field = ProtobufReader.fieldNumber(tag);
+            if (field == 1 && ProtobufReader.wireType(tag) == ProtobufReader.LENGTH_DELIMITED) {
+                feedTimestamp = readHeaderTimestamp(reader);
+            } else if (field == 2 && ProtobufReader.wireType(tag) == ProtobufReader.LENGTH_DELIMITED) {
+                TripUpdate update = readEntity(reader);
+                if (update != null) {
+                    consumer.accept(update);
+                }
+            } else {
+                reader.skipField(tag);
+            }
+        }
+        return feedTimestamp;
+    }
+    
+    private static long readHeaderTimestamp(ProtobufReader reader) throws IOException {
+        long timestamp = 0;
+        reader.pushLimit();
+        int tag;
+        while ((tag = reader.readTag()) != 0) {
+            if (ProtobufReader.fieldNumber(tag) == 3) {
+                timestamp = reader.readVarint();
+            } else {
+                reader.skipField(tag);
+            }
+        }
+        reader.popLimit();
+        return timestamp;
+    }
+    
+    private static TripUpdate readEntity(ProtobufReader reader) throws IOException {
+        TripUpdate update = null;
+        boolean deleted = false;
+        reader.pushLimit();
+        int tag;
+        while ((tag = reader.readTag()) != 0) {
+            int field = ProtobufReader.fieldNumber(tag);
+            if (field == 2) {
+                deleted = reader.readBool();
+            } else if (field == 3) {
+                update = readTripUpdate(reader);
+            } else {
+                reader.skipField(tag);
+            }
+        }
+        reader.popLimit();
+        if (update == null || update.tripId() == null) {
+            return null;
+        }
+        return deleted ? new TripUpdate(update.tripId(), false, true, update.timestamp(), null, List.of()) : update;
+    }
+    
+    private static TripUpdate readTripUpdate(ProtobufReader reader) throws IOException {
+        String tripId = null;
+        boolean canceled = false;
+        long timestamp = 0;
+        Integer delay = null;
+        List<StopTimeUpdate> stopTimeUpdates = new ArrayList<>();
+        reader.pushLimit();
+        int tag;
+        while ((tag = reader.readTag()) != 0) {
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 1 -> {
+                    // TripDescriptor: trip_id (1) and schedule_relationship (4)
+                    reader.pushLimit();
+                    int tripTag;
+                    while ((tripTag = reader.readTag()) != 0) {
+                        if (ProtobufReader.fieldNumber(tripTag) == 1) {
+                            tripId = reader.readString();
+                        } else if (ProtobufReader.fieldNumber(tripTag) == 4) {
+                            canceled = reader.readInt32() == CANCELED;
+                        } else {
+                            reader.skipField(tripTag);
+                        }
+                    }
+                    reader.popLimit();
+                }
+                case 2 -> stopTimeUpdates.add(readStopTimeUpdate(reader));
+                case 4 -> timestamp = reader.readVarint();
+                case 5 -> delay = reader.readInt32();
+                default -> reader.skipField(tag);
+            }
+        }
+        reader.popLimit();
+        return new TripUpdate(tripId, canceled, false, timestamp, delay, stopTimeUpdates);
+    }
+    
+    private static StopTimeUpdate readStopTimeUpdate(ProtobufReader reader) throws IOException {
+        int stopSequence = -1;
+        String stopId = null;
+        StopTimeEvent arrival = null;
+        StopTimeEvent departure = null;
+        reader.pushLimit();
+        int tag;
+        while ((tag = reader.readTag()) != 0) {
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 1 -> stopSequence = reader.readInt32();
+                case 2 -> arrival = readStopTimeEvent(reader);
+                case 3 -> departure = readStopTimeEvent(reader);
+                case 4 -> stopId = reader.readString();
+                default -> reader.skipField(tag);
+            }
+        }
+        reader.popLimit();
+        // Departure is what a waiting passenger cares about, arrival is the fallback
+        StopTimeEvent event = departure != null ? departure : arrival;
+        return new StopTimeUpdate(stopSequence, stopId,
+                event != null ? event.delay() : null, event != null ? event.time() : 0);
+    }
+    
+    private static StopTimeEvent readStopTimeEvent(ProtobufReader reader) throws IOException {
+        Integer delay = null;
+        long time = 0;
+        reader.pushLimit();
+        int tag;
+        while ((tag = reader.readTag()) != 0) {
+            if (ProtobufReader.fieldNumber(tag) == 1) {
+                delay = reader.readInt32();
+            } else if (ProtobufReader.fieldNumber(tag) == 2) {
+                time = reader.readVarint();
+            } else {
+                reader.skipField(tag);
+            }
+        }
+        reader.popLimit();
+        return new StopTimeEvent(delay, time);
+    }
+    
+    /**
+     * A decoded TripUpdate. {@code delay} is the trip-level delay in seconds, null when not given;
+     * {@code deleted} marks an entity the producer withdrew.
+     */
+    public record TripUpdate(String tripId, boolean canceled, boolean deleted, long timestamp, Integer delay,
+                             List<StopTimeUpdate> stopTimeUpdates) {
+    }
+    
+    /**
+     * Predicted delay (seconds) or absolute time (epoch seconds, 0 if absent) at one stop of a trip.
+     */
+    public record StopTimeUpdate(int stopSequence, String stopId, Integer delay, long time) {
+    }
+    
+    private record StopTimeEvent(Integer delay, long time) {
+    }
+}
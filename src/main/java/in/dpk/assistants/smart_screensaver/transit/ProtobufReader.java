@@ -0,0 +1,161 @@
+package in.dpk.assistants.smart_screensaver.transit;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal streaming reader for the protobuf wire format, enough to walk GTFS-Realtime feeds without
+ * generated classes. Nested messages are entered with {@link #pushLimit} and left with {@link #popLimit},
+ * so a feed is decoded field by field straight off the input stream.
+ */
+public class ProtobufReader {
+    
+    public static final int VARINT = 0;
+    public static final int FIXED64 = 1;
+    public static final int LENGTH_DELIMITED = 2;
+    public static final int FIXED32 = 5;
+    
+    private static final int MAX_DEPTH = 16;
+    
+    private final InputStream in;
+    private final long[] limits = new long[MAX_DEPTH];
+    private int depth;
+    private long position;
+    private long limit = Long.MAX_VALUE;
+    
+    public ProtobufReader(InputStream in) {
+        this.in = in;
+    }
+    
+    /**
+     * Reads the next field tag, or returns 0 at the end of the current message (or of the stream at the top level).
+     */
+    public int readTag() throws IOException {
+        if (position >= limit) {
+            return 0;
+        }
+        if (limit == Long.MAX_VALUE) {
+            int first = in.read();
+            if (first < 0) {
+                return 0;
+            }
+            position++;
+            return (int) readVarint(first);
+        }
+        return (int) readVarint();
+    }
+    
+    public static int fieldNumber(int tag) {
+        return tag >>> 3;
+    }
+    
+    public static int wireType(int tag) {
+        return tag & 7;
+    }
+    
+    public long readVarint() throws IOException {
+        return readVarint(readByte());
+    }
+    
+    public int readInt32() throws IOException {
+        return (int) readVarint();
+    }
+    
+    public boolean readBool() throws IOException {
+        return readVarint() != 0;
+    }
+    
+    public String readString() throws IOException {
+        int length = readLength();
+        byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int count = in.read(bytes, read, length - read);
+            if (count < 0) {
+                throw new EOFException("Truncated protobuf string");
+            }
+            read += count;
+        }
+        position += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Enters an embedded message; fields are then read until {@link #readTag} returns 0.
+     */
+    public void pushLimit() throws IOException {
+        int length = readLength();
+        if (depth == MAX_DEPTH) {
+            throw new IOException("Protobuf message nested too deeply");
+        }
+        limits[depth++] = limit;
+        limit = position + length;
+    }
+    
+    /**
+     * Leaves the current embedded message, skipping any fields that were not read.
+     */
+    public void popLimit() throws IOException {
+        skipBytes(limit - position);
+        limit = limits[--depth];
+    }
+    
+    public void skipField(int tag) throws IOException {
+        switch (wireType(tag)) {
+            case VARINT -> readVarint();
+            case FIXED64 -> skipBytes(8);
+            case LENGTH_DELIMITED -> skipBytes(readLength());
+            case FIXED32 -> skipBytes(4);
+            default -> throw new IOException("Unsupported protobuf wire type " + wireType(tag));
+        }
+    }
+    
+    private int readLength() throws IOException {
+        long length = readVarint();
+        if (length < 0 || position + length > limit) {
+            throw new IOException("Invalid protobuf length " + length);
+        }
+        return (int) length;
+    }
+    
+    private long readVarint(int first) throws IOException {
+        long result = first & 0x7f;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            if (shift >= 64) {
+                throw new IOException("Malformed protobuf varint");
+            }
+            b = readByte();
+            result |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        }
+        return result;
+    }
+    
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Truncated protobuf input");
+        }
+        position++;
+        return b;
+    }
+    
+    private void skipBytes(long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Truncated protobuf input");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+        position += count;
+    }
+}
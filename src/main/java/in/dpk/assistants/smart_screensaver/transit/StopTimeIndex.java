@@ -0,0 +1,250 @@
+package in.dpk.assistants.smart_screensaver.transit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read side of the stop-time index written by {@link GtfsIngestor}. The departure and trip columns
+ * stay in the memory-mapped file; each stop owns a contiguous row range sorted by departure seconds,
+ * so the next departures from a stop are found with a binary search.
+ */
+public class StopTimeIndex {
+    
+    static final int MAGIC = 0x47544653;
+    static final int VERSION = 3;
+    static final int SEQUENCE_BITS = 19;
+    static final int NO_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+    
+    private static final int SECONDS_PER_DAY = 24 * 3600;
+    
+    private final IntBuffer stopOffsets;
+    private final IntBuffer departures;
+    private final IntBuffer rowTrips;
+    private final IntBuffer tripService;
+    private final IntBuffer tripRoute;
+    private final IntBuffer services;
+    private final long[] addedDates;
+    private final long[] removedDates;
+    private final LongBuffer tripStops;
+    private final Map<String, Integer> stops = new HashMap<>();
+    private final String[] stopNames;
+    private final String[] tripIds;
+    private final String[] tripHeadsigns;
+    private final String[] routeNames;
+    
+    private StopTimeIndex(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a stop-time index of this version");
+        }
+        // Feed path and fingerprint, only read by GtfsIngestor.isCurrent
+        string(buffer);
+        buffer.getLong();
+        int stopCount = buffer.getInt();
+        int rowCount = buffer.getInt();
+        int tripCount = buffer.getInt();
+        int serviceCount = buffer.getInt();
+        int routeCount = buffer.getInt();
+        int addedCount = buffer.getInt();
+        int removedCount = buffer.getInt();
+        
+        stopOffsets = ints(buffer, stopCount + 1);
+        departures = ints(buffer, rowCount);
+        rowTrips = ints(buffer, rowCount);
+        tripService = ints(buffer, tripCount);
+        tripRoute = ints(buffer, tripCount);
+        services = slice(buffer, serviceCount, 3 * Integer.BYTES).asIntBuffer();
+        addedDates = new long[addedCount];
+        for (int i = 0; i < addedCount; i++) {
+            addedDates[i] = buffer.getLong();
+        }
+        removedDates = new long[removedCount];
+        for (int i = 0; i < removedCount; i++) {
+            removedDates[i] = buffer.getLong();
+        }
+        tripStops = slice(buffer, rowCount, Long.BYTES).asLongBuffer();
+        
+        // Identifiers and names are needed as strings anyway, so they are decoded once
+        stopNames = new String[stopCount];
+        for (int stop = 0; stop < stopCount; stop++) {
+            stops.put(string(buffer), stop);
+            stopNames[stop] = string(buffer);
+        }
+        tripIds = new String[tripCount];
+        tripHeadsigns = new String[tripCount];
+        for (int trip = 0; trip < tripCount; trip++) {
+            tripIds[trip] = string(buffer);
+            tripHeadsigns[trip] = string(buffer);
+        }
+        routeNames = new String[routeCount];
+        for (int route = 0; route < routeCount; route++) {
+            routeNames[route] = string(buffer);
+        }
+    }
+    
+    public static StopTimeIndex open(Path indexFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Stop-time index is too large to map: " + channel.size() + " bytes");
+            }
+            return new StopTimeIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    public boolean hasStop(String stopId) {
+        return stops.containsKey(stopId);
+    }
+    
+    public String getStopName(String stopId) {
+        Integer stop = stops.get(stopId);
+        return stop != null ? stopNames[stop] : null;
+    }
+    
+    public int getStopCount() {
+        return stopNames.length;
+    }
+    
+    public int getStopTimeCount() {
+        return departures.limit();
+    }
+    
+    /**
+     * Next departures from a stop at or after the given time, in departure order. Trips of the previous
+     * service day that run past midnight (times of 24:00:00 and later) are included.
+     */
+    public List<Departure> nextDepartures(String stopId, LocalDate date, int secondsOfDay, int limit) {
+        Integer stop = stops.get(stopId);
+        if (stop == null || limit <= 0) {
+            return List.of();
+        }
+        int from = stopOffsets.get(stop);
+        int to = stopOffsets.get(stop + 1);
+        
+        List<Departure> result = new ArrayList<>();
+        collect(result, stop, from, to, date, secondsOfDay, limit);
+        collect(result, stop, from, to, date.minusDays(1), secondsOfDay + SECONDS_PER_DAY, limit);
+        result.sort(Comparator.comparingInt(Departure::secondsFromNow));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+    
+    private void collect(List<Departure> result, int stop, int from, int to, LocalDate serviceDate, int seconds,
+                         int limit) {
+        int found = 0;
+        for (int row = lowerBound(from, to, seconds); row < to && found < limit; row++) {
+            int trip = rowTrips.get(row);
+            if (isActive(tripService.get(trip), serviceDate)) {
+                int departure = departures.get(row);
+                result.add(new Departure(tripIds[trip], routeNames[tripRoute.get(trip)], tripHeadsigns[trip],
+                        serviceDate, departure, departure - seconds, stopSequence(trip, stop)));
+                found++;
+            }
+        }
+    }
+    
+    /**
+     * First row in [from, to) departing at or after the given seconds.
+     */
+    private int lowerBound(int from, int to, int seconds) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures.get(mid) < seconds) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * stop_sequence of a trip at a stop, or -1 if the feed has none. A trip visiting the stop twice
+     * reports its first visit.
+     */
+    private int stopSequence(int trip, int stop) {
+        long key = tripStopKey(trip, stop, 0);
+        int low = 0;
+        int high = tripStops.limit();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tripStops.get(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == tripStops.limit() || tripStops.get(low) >>> SEQUENCE_BITS != key >>> SEQUENCE_BITS) {
+            return -1;
+        }
+        int sequence = (int) (tripStops.get(low) & NO_SEQUENCE);
+        return sequence == NO_SEQUENCE ? -1 : sequence;
+    }
+    
+    boolean isActive(int service, LocalDate date) {
+        int yyyymmdd = date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+        long key = serviceDateKey(service, yyyymmdd);
+        if (Arrays.binarySearch(removedDates, key) >= 0) {
+            return false;
+        }
+        if (Arrays.binarySearch(addedDates, key) >= 0) {
+            return true;
+        }
+        int days = services.get(service * 3);
+        return yyyymmdd >= services.get(service * 3 + 1) && yyyymmdd <= services.get(service * 3 + 2)
+                && (days & (1 << (date.getDayOfWeek().getValue() - 1))) != 0;
+    }
+    
+    static long serviceDateKey(int service, int yyyymmdd) {
+        return ((long) service << 32) | yyyymmdd;
+    }
+    
+    /**
+     * Sorts by trip, then stop, then sequence. Trip and stop ids take 22 bits each.
+     */
+    static long tripStopKey(int trip, int stop, int sequence) {
+        return ((long) trip << (22 + SEQUENCE_BITS)) | ((long) stop << SEQUENCE_BITS) | sequence;
+    }
+    
+    private static IntBuffer ints(ByteBuffer buffer, int count) throws IOException {
+        return slice(buffer, count, Integer.BYTES).asIntBuffer();
+    }
+    
+    private static ByteBuffer slice(ByteBuffer buffer, int count, int width) throws IOException {
+        // Counts come from the file, so a column that cannot fit the mapping is rejected instead of overflowing
+        long length = (long) count * width;
+        if (count < 0 || length > buffer.remaining()) {
+            throw new IOException("Stop-time index column of " + count + " entries does not fit the file");
+        }
+        ByteBuffer slice = buffer.slice(buffer.position(), (int) length);
+        buffer.position(buffer.position() + (int) length);
+        return slice;
+    }
+    
+    private static String string(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * A scheduled departure. {@code departureSeconds} counts from midnight of {@code serviceDate} and can
+     * exceed one day; {@code secondsFromNow} is relative to the time the lookup was made for.
+     * {@code stopSequence} is the trip's stop_sequence at the stop, or -1 if the feed has none.
+     */
+    public record Departure(String tripId, String route, String headsign, LocalDate serviceDate,
+                            int departureSeconds, int secondsFromNow, int stopSequence) {
+    }
+}
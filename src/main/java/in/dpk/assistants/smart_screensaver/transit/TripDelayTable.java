@@ -0,0 +1,91 @@
+package in.dpk.assistants.smart_screensaver.transit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Realtime state per trip, kept across polls. Each decoded TripUpdate replaces only its own trip's
+ * entry (unless it is older than what is held), so applying a feed costs one map write per update
+ * and the schedule itself is never rebuilt.
+ */
+public class TripDelayTable {
+    
+    private final Map<String, Entry> trips = new ConcurrentHashMap<>();
+    
+    /**
+     * Applies one update and reports whether it changed the table.
+     */
+    public boolean apply(GtfsRealtimeDecoder.TripUpdate update, long receivedAtMillis) {
+        if (update.deleted()) {
+            return trips.remove(update.tripId()) != null;
+        }
+        // An out-of-date update still shows the trip is in the feed, so it keeps the entry alive
+        Entry result = trips.merge(update.tripId(), new Entry(update, receivedAtMillis), (current, incoming) ->
+                current.update().timestamp() > incoming.update().timestamp()
+                        ? new Entry(current.update(), incoming.receivedAt())
+                        : incoming);
+        return result.update() == update;
+    }
+    
+    public boolean isCanceled(String tripId) {
+        Entry entry = trips.get(tripId);
+        return entry != null && entry.update().canceled();
+    }
+    
+    /**
+     * Predicted delay in seconds of a trip at a stop, or null if there is no prediction. A prediction for
+     * the stop itself wins; otherwise the trip delay, or the delay of the latest predicted stop at or before
+     * {@code stopSequence}, which propagates down the trip. Pass -1 if the stop_sequence is unknown.
+     */
+    public Integer delaySeconds(String tripId, String stopId, int stopSequence, long scheduledEpochSecond) {
+        Entry entry = trips.get(tripId);
+        if (entry == null) {
+            return null;
+        }
+        GtfsRealtimeDecoder.TripUpdate update = entry.update();
+        for (GtfsRealtimeDecoder.StopTimeUpdate stopTimeUpdate : update.stopTimeUpdates()) {
+            boolean sameStop = stopSequence >= 0 && stopTimeUpdate.stopSequence() >= 0
+                    ? stopSequence == stopTimeUpdate.stopSequence()
+                    : stopId.equals(stopTimeUpdate.stopId());
+            if (sameStop) {
+                if (stopTimeUpdate.delay() != null) {
+                    return stopTimeUpdate.delay();
+                }
+                if (stopTimeUpdate.time() > 0) {
+                    return (int) (stopTimeUpdate.time() - scheduledEpochSecond);
+                }
+            }
+        }
+        if (update.delay() != null) {
+            return update.delay();
+        }
+        if (stopSequence < 0) {
+            return null;
+        }
+        GtfsRealtimeDecoder.StopTimeUpdate upstream = null;
+        for (GtfsRealtimeDecoder.StopTimeUpdate stopTimeUpdate : update.stopTimeUpdates()) {
+            if (stopTimeUpdate.delay() != null && stopTimeUpdate.stopSequence() >= 0
+                    && stopTimeUpdate.stopSequence() <= stopSequence
+                    && (upstream == null || stopTimeUpdate.stopSequence() > upstream.stopSequence())) {
+                upstream = stopTimeUpdate;
+            }
+        }
+        return upstream != null ? upstream.delay() : null;
+    }
+    
+    /**
+     * Drops trips that no feed has mentioned since the given time, e.g. trips that finished.
+     */
+    public int expire(long receivedBeforeMillis) {
+        int before = trips.size();
+        trips.values().removeIf(entry -> entry.receivedAt() < receivedBeforeMillis);
+        return before - trips.size();
+    }
+    
+    public int size() {
+        return trips.size();
+    }
+    
+    private record Entry(GtfsRealtimeDecoder.TripUpdate update, long receivedAt) {
+    }
+}
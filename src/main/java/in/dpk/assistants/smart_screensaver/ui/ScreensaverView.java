@@ -3,6 +3,7 @@ package in.dpk.assistants.smart_screensaver.ui;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.PageTitle;
+import in.dpk.assistants.smart_screensaver.entity.UserPreference;
 import in.dpk.assistants.smart_screensaver.service.ScreensaverService;
 import in.dpk.assistants.smart_screensaver.service.UserService;
 import in.dpk.assistants.smart_screensaver.service.BackgroundImageService;
@@ -80,8 +81,9 @@ public class ScreensaverView extends VerticalLayout {
     
     private void loadInitialContent() {
         // Load initial content once, then let JavaScript handle real-time updates
-        Map<String, Object> content = screensaverService.getScreensaverContent();
-        updateUI(content);
+        UserPreference.Snapshot preferences = userService.getPreferenceSnapshot();
+        Map<String, Object> content = screensaverService.getScreensaverContent(preferences);
+        updateUI(content, preferences);
         updateBackground();
     }
     
@@ -91,11 +93,11 @@ public class ScreensaverView extends VerticalLayout {
         backgroundContainer.setBackgroundImage(backgroundImage);
     }
     
-    private void updateUI(Map<String, Object> content) {
+    private void updateUI(Map<String, Object> content, UserPreference.Snapshot preferences) {
         // Get user name for personalized greeting
         String userName = "User";
-        if (userService.getUserPreference() != null) {
-            userName = userService.getUserPreference().getDisplayName();
+        if (preferences != null) {
+            userName = preferences.displayName();
         }
         
         // Update content display
@@ -365,7 +365,6 @@ public class SettingsView extends VerticalLayout {
         UserPreference prefs = userService.getUserPreference();
         if (prefs == null) {
             prefs = new UserPreference();
-            prefs.setUserId("default");
         }
         
         prefs.setDisplayName(displayNameField.getValue());
@@ -378,7 +377,7 @@ public class SettingsView extends VerticalLayout {
         prefs.setEnableNotifications(enableNotificationsCheckbox.getValue());
         prefs.setEnableLocationServices(enableLocationServicesCheckbox.getValue());
         
-        userService.updateUserPreference(prefs);
+        userService.updateDevicePreference(prefs);
         Notification.show("Preferences saved successfully!", 3000, Notification.Position.TOP_CENTER);
     }
     
@@ -0,0 +1,178 @@
+package in.dpk.assistants.smart_screensaver.weather;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Immutable hourly forecast series for one location, stored as primitive arrays.
+ * "Current" weather is answered locally by interpolating between the surrounding hours,
+ * so the upstream API only needs to be called when the series is refreshed.
+ */
+public final class HourlyForecast {
+    
+    public static final int STEP_SECONDS = 3600;
+    
+    private final long startEpochSecond;
+    private final float[] temperature;
+    private final short[] humidity;
+    private final short[] weatherCode;
+    private final long fetchedAtMillis;
+    
+    public HourlyForecast(long startEpochSecond, float[] temperature, short[] humidity, short[] weatherCode,
+                          long fetchedAtMillis) {
+        if (temperature.length != humidity.length || temperature.length != weatherCode.length) {
+            throw new IllegalArgumentException("Forecast series must have equal length");
+        }
+        this.startEpochSecond = startEpochSecond;
+        this.temperature = temperature;
+        this.humidity = humidity;
+        this.weatherCode = weatherCode;
+        this.fetchedAtMillis = fetchedAtMillis;
+    }
+    
+    /**
+     * Parses an Open-Meteo response requested with {@code timeformat=unixtime} and
+     * {@code hourly=temperature_2m,relative_humidity_2m,weather_code}. Throws IllegalArgumentException
+     * if a series is missing, empty or of a different length than the others.
+     */
+    public static HourlyForecast fromOpenMeteo(JsonNode response, long fetchedAtMillis) {
+        JsonNode hourly = response.get("hourly");
+        if (hourly == null) {
+            throw new IllegalArgumentException("Response has no hourly series");
+        }
+        JsonNode times = series(hourly, "time");
+        JsonNode temperatures = series(hourly, "temperature_2m");
+        JsonNode humidities = series(hourly, "relative_humidity_2m");
+        JsonNode codes = series(hourly, "weather_code");
+        int size = times.size();
+        if (size == 0 || temperatures.size() != size || humidities.size() != size || codes.size() != size) {
+            throw new IllegalArgumentException("Hourly series are empty or of different length");
+        }
+        if (!times.get(0).canConvertToLong()) {
+            throw new IllegalArgumentException("Hourly series has no start time");
+        }
+        
+        
+        float[] temperature = new float[size];
+        short[] humidity = new short[size];
+        short[] weatherCode = new short[size];
+        for (int i = 0; i < size; i++) {
+            JsonNode t = temperatures.get(i);
+            temperature[i] = t == null || t.isNull() ? Float.NaN : (float) t.asDouble();
+            JsonNode h = humidities.get(i);
+            humidity[i] = h == null || h.isNull() ? -1 : (short) h.asInt();
+            JsonNode c = codes.get(i);
+            weatherCode[i] = c == null || c.isNull() ? -1 : (short) c.asInt();
+        }
+        return new HourlyForecast(times.get(0).asLong(), temperature, humidity, weatherCode, fetchedAtMillis);
+    }
+    
+    private static JsonNode series(JsonNode hourly, String name) {
+        JsonNode series = hourly.get(name);
+        if (series == null || !series.isArray()) {
+            throw new IllegalArgumentException("Response has no hourly " + name + " series");
+        }
+        return series;
+    }
+    
+    /**
+     * Writes the series back in the Open-Meteo response shape, so snapshots can be re-read with
+     * {@link #fromOpenMeteo(JsonNode, long)}.
+     */
+    public ObjectNode toOpenMeteo(ObjectMapper objectMapper) {
+        ObjectNode response = objectMapper.createObjectNode();
+        ObjectNode hourly = response.putObject("hourly");
+        ArrayNode times = hourly.putArray("time");
+        ArrayNode temperatures = hourly.putArray("temperature_2m");
+        ArrayNode humidities = hourly.putArray("relative_humidity_2m");
+        ArrayNode codes = hourly.putArray("weather_code");
+        for (int i = 0; i < temperature.length; i++) {
+            times.add(startEpochSecond + (long) i * STEP_SECONDS);
+            if (Float.isNaN(temperature[i])) {
+                temperatures.addNull();
+            } else {
+                temperatures.add(temperature[i]);
+            }
+            if (humidity[i] < 0) {
+                humidities.addNull();
+            } else {
+                humidities.add(humidity[i]);
+            }
+            if (weatherCode[i] < 0) {
+                codes.addNull();
+            } else {
+                codes.add(weatherCode[i]);
+            }
+        }
+        return response;
+    }
+    
+    public boolean covers(long epochSecond) {
+        return temperature.length > 0
+                && epochSecond >= startEpochSecond
+                && epochSecond <= endEpochSecond();
+    }
+    
+    public long endEpochSecond() {
+        return startEpochSecond + (long) (temperature.length - 1) * STEP_SECONDS;
+    }
+    
+    public float temperatureAt(long epochSecond) {
+        int i = indexAt(epochSecond);
+        float before = temperature[i];
+        float after = i + 1 < temperature.length ? temperature[i + 1] : before;
+        if (Float.isNaN(after)) {
+            return before;
+        }
+        if (Float.isNaN(before)) {
+            return after;
+        }
+        return before + (after - before) * fraction(epochSecond, i);
+    }
+    
+    public int humidityAt(long epochSecond) {
+        int i = indexAt(epochSecond);
+        int before = humidity[i];
+        int after = i + 1 < humidity.length ? humidity[i + 1] : before;
+        if (before < 0 || after < 0) {
+            return Math.max(before, after);
+        }
+        return Math.round(before + (after - before) * fraction(epochSecond, i));
+    }
+    
+    /**
+     * Weather codes are categorical, so the nearest hour wins instead of interpolating.
+     */
+    public int weatherCodeAt(long epochSecond) {
+        int i = indexAt(epochSecond);
+        if (fraction(epochSecond, i) >= 0.5f && i + 1 < weatherCode.length && weatherCode[i + 1] >= 0) {
+            return weatherCode[i + 1];
+        }
+        return weatherCode[i];
+    }
+    
+    public long getStartEpochSecond() {
+        return startEpochSecond;
+    }
+    
+    public long getFetchedAtMillis() {
+        return fetchedAtMillis;
+    }
+    
+    public int size() {
+        return temperature.length;
+    }
+    
+    private int indexAt(long epochSecond) {
+        long offset = epochSecond - startEpochSecond;
+        int i = (int) (offset / STEP_SECONDS);
+        return Math.max(0, Math.min(i, temperature.length - 1));
+    }
+    
+    private float fraction(long epochSecond, int index) {
+        long offset = epochSecond - startEpochSecond - (long) index * STEP_SECONDS;
+        return Math.max(0f, Math.min(1f, offset / (float) STEP_SECONDS));
+    }
+}
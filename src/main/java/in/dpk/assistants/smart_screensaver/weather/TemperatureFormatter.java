@@ -0,0 +1,32 @@
+package in.dpk.assistants.smart_screensaver.weather;
+
+import java.util.Locale;
+
+/**
+ * Formats temperatures as "21.5°C". Values between -50 and 60 °C are rounded to tenths and served
+ * from strings rendered once at class load; anything else (including NaN) is formatted on demand.
+ */
+public final class TemperatureFormatter {
+    
+    private static final int MIN_TENTHS = -500;
+    private static final int MAX_TENTHS = 600;
+    private static final String UNIT = "°C";
+    private static final String[] RENDERED = new String[MAX_TENTHS - MIN_TENTHS + 1];
+    
+    static {
+        for (int tenths = MIN_TENTHS; tenths <= MAX_TENTHS; tenths++) {
+            int magnitude = Math.abs(tenths);
+            RENDERED[tenths - MIN_TENTHS] = (tenths < 0 ? "-" : "") + magnitude / 10 + "." + magnitude % 10 + UNIT;
+        }
+    }
+    
+    private TemperatureFormatter() {
+    }
+    
+    public static String format(double celsius) {
+        if (celsius >= MIN_TENTHS / 10.0 && celsius <= MAX_TENTHS / 10.0) {
+            return RENDERED[(int) Math.round(celsius * 10) - MIN_TENTHS];
+        }
+        return String.format(Locale.ROOT, "%.1f%s", celsius, UNIT);
+    }
+}
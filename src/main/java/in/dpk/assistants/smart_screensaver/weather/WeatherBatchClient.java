@@ -0,0 +1,175 @@
+package in.dpk.assistants.smart_screensaver.weather;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import in.dpk.assistants.smart_screensaver.service.SystemSettingsService;
+import in.dpk.assistants.smart_screensaver.timeseries.TimeSeriesStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces forecast requests for many location keys into multi-coordinate Open-Meteo calls.
+ * Keys requested within a short window are sent as one comma-separated latitude/longitude list,
+ * and the array response is demultiplexed back to the per-location futures.
+ */
+@Component
+@Slf4j
+public class WeatherBatchClient {
+    
+    static final String HOURLY_QUERY = "hourly=temperature_2m,relative_humidity_2m,weather_code"
+            + "&past_hours=1&forecast_hours=48&timeformat=unixtime&timezone=GMT";
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
+    
+    private final WebClient webClient;
+    private final SystemSettingsService systemSettingsService;
+    private final ExternalApiConfig apiConfig;
+    private final TimeSeriesStore timeSeriesStore;
+    private final ScreensaverMetrics metrics;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "weather-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Chunks are sent from here rather than the batching thread, so a slow upstream call only
+    // delays the locations in its own chunk
+    private final ExecutorService requestExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS, r -> {
+        Thread thread = new Thread(r, "weather-request");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final Map<String, CompletableFuture<HourlyForecast>> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    
+    public WeatherBatchClient(WebClient webClient, SystemSettingsService systemSettingsService,
+                              ExternalApiConfig apiConfig, TimeSeriesStore timeSeriesStore,
+                              ScreensaverMetrics metrics) {
+        this.webClient = webClient;
+        this.systemSettingsService = systemSettingsService;
+        this.apiConfig = apiConfig;
+        this.timeSeriesStore = timeSeriesStore;
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Queues a forecast fetch for a "lat,lon" location key. Concurrent requests for the same key
+     * within one window share the same future.
+     */
+    public CompletableFuture<HourlyForecast> fetch(String locationKey) {
+        synchronized (pending) {
+            CompletableFuture<HourlyForecast> future = pending.get(locationKey);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(locationKey, future);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(this::flush, apiConfig.getWeatherBatchWindow().toMillis(), TimeUnit.MILLISECONDS);
+            }
+            return future;
+        }
+    }
+    
+    private void flush() {
+        List<Map.Entry<String, CompletableFuture<HourlyForecast>>> batch;
+        synchronized (pending) {
+            batch = new ArrayList<>(pending.entrySet());
+            pending.clear();
+            flushScheduled = false;
+        }
+        
+        int batchSize = Math.max(1, apiConfig.getWeatherBatchSize());
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            List<Map.Entry<String, CompletableFuture<HourlyForecast>>> chunk =
+                    batch.subList(from, Math.min(from + batchSize, batch.size()));
+            requestExecutor.execute(() -> request(chunk));
+        }
+    }
+    
+    private void request(List<Map.Entry<String, CompletableFuture<HourlyForecast>>> chunk) {
+        try {
+            String weatherApiUrl = systemSettingsService.getApiUrl("weather");
+            if (weatherApiUrl == null || weatherApiUrl.trim().isEmpty()) {
+                throw new IllegalStateException("Weather API URL not configured");
+            }
+            
+            StringBuilder latitudes = new StringBuilder();
+            StringBuilder longitudes = new StringBuilder();
+            for (Map.Entry<String, CompletableFuture<HourlyForecast>> entry : chunk) {
+                // Location keys are "lat,lon" rounded to two decimals, which is plenty for a forecast grid
+                String[] coordinates = entry.getKey().split(",");
+                if (latitudes.length() > 0) {
+                    latitudes.append(',');
+                    longitudes.append(',');
+                }
+                latitudes.append(coordinates[0]);
+                longitudes.append(coordinates[1]);
+            }
+            
+            String weatherUrl = weatherApiUrl + "?latitude=" + latitudes + "&longitude=" + longitudes + "&" + HOURLY_QUERY;
+            log.info("Fetching weather forecasts for {} locations in one request", chunk.size());
+            
+            long started = System.nanoTime();
+            String response = metrics.upstream("weather", () -> webClient.get()
+                    .uri(weatherUrl)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(Duration.ofSeconds(systemSettingsService.getApiTimeout()))
+                    .block());
+            timeSeriesStore.append(TimeSeriesStore.API_LATENCY, "weather", Instant.now().getEpochSecond(),
+                    (System.nanoTime() - started) / 1_000_000.0);
+            if (response == null) {
+                throw new IllegalStateException("Empty weather response");
+            }
+            
+            // A single coordinate yields an object, several yield an array in request order
+            JsonNode root = objectMapper.readTree(response);
+            long fetchedAt = System.currentTimeMillis();
+            for (int i = 0; i < chunk.size(); i++) {
+                JsonNode node = root.isArray() ? root.get(i) : (i == 0 ? root : null);
+                String locationKey = chunk.get(i).getKey();
+                CompletableFuture<HourlyForecast> future = chunk.get(i).getValue();
+                if (node == null || node.isNull()) {
+                    future.completeExceptionally(new IllegalStateException("No forecast returned for " + locationKey));
+                    continue;
+                }
+                // One unusable element only fails its own location
+                try {
+                    future.complete(HourlyForecast.fromOpenMeteo(node, fetchedAt));
+                } catch (RuntimeException e) {
+                    log.warn("Invalid forecast returned for {}: {}", locationKey, e.getMessage());
+                    future.completeExceptionally(e);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error fetching batched weather forecast: {}", e.getMessage());
+            for (Map.Entry<String, CompletableFuture<HourlyForecast>> entry : chunk) {
+                entry.getValue().completeExceptionally(e);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        requestExecutor.shutdownNow();
+    }
+}
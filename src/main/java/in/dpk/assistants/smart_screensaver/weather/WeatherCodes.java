@@ -0,0 +1,70 @@
+package in.dpk.assistants.smart_screensaver.weather;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Condition labels for WMO weather interpretation codes (0-99). Labels come from the
+ * {@code weather_conditions} resource bundle and are expanded into a 100-entry array per locale
+ * the first time that locale is used, so a lookup is a single array read.
+ */
+public final class WeatherCodes {
+    
+    private static final String BUNDLE = "weather_conditions";
+    private static final int CODES = 100;
+    
+    // {first code, last code, label key}, following the Open-Meteo documentation
+    private static final Object[][] RANGES = {
+            {0, 0, "clear_sky"},
+            {1, 3, "partly_cloudy"},
+            {45, 48, "foggy"},
+            {51, 55, "drizzle"},
+            {56, 57, "freezing_drizzle"},
+            {61, 65, "rain"},
+            {66, 67, "freezing_rain"},
+            {71, 75, "snow"},
+            {77, 77, "snow_grains"},
+            {80, 82, "rain_showers"},
+            {85, 86, "snow_showers"},
+            {95, 95, "thunderstorm"},
+            {96, 99, "thunderstorm_hail"}
+    };
+    
+    private static final Map<Locale, String[]> LABELS = new ConcurrentHashMap<>();
+    
+    private WeatherCodes() {
+    }
+    
+    public static String label(int code) {
+        return label(code, Locale.getDefault());
+    }
+    
+    public static String label(int code, Locale locale) {
+        String[] labels = LABELS.computeIfAbsent(locale, WeatherCodes::buildLabels);
+        return code >= 0 && code < CODES ? labels[code] : labels[CODES];
+    }
+    
+    private static String[] buildLabels(Locale locale) {
+        ResourceBundle bundle = ResourceBundle.getBundle(BUNDLE, locale);
+        // The extra last slot holds the label for codes outside 0-99
+        String[] labels = new String[CODES + 1];
+        Arrays.fill(labels, text(bundle, "unknown", "Unknown"));
+        for (Object[] range : RANGES) {
+            String label = text(bundle, (String) range[2], "Unknown");
+            Arrays.fill(labels, (int) range[0], (int) range[1] + 1, label);
+        }
+        return labels;
+    }
+    
+    private static String text(ResourceBundle bundle, String key, String fallback) {
+        try {
+            return bundle.getString(key);
+        } catch (MissingResourceException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Every statement is idempotent so the
+-- script also brings databases created by older versions up to date; Flyway baselines them at
+-- version 0 and runs it like on a fresh database.
+
+CREATE TABLE IF NOT EXISTS system_settings (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    setting_key VARCHAR(255) UNIQUE,
+    setting_value CHARACTER LARGE OBJECT,
+    description VARCHAR(255),
+    category VARCHAR(255),
+    enabled BOOLEAN NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_preferences (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id VARCHAR(255) UNIQUE,
+    display_name VARCHAR(255),
+    timezone VARCHAR(255),
+    enable_notifications BOOLEAN NOT NULL,
+    theme VARCHAR(255),
+    refresh_interval INTEGER NOT NULL,
+    enable_location_services BOOLEAN NOT NULL,
+    default_location VARCHAR(255),
+    commute_mode VARCHAR(255),
+    work_address VARCHAR(255),
+    home_address VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS routines (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255),
+    description VARCHAR(255),
+    start_time TIME,
+    end_time TIME,
+    day_category ENUM ('WORKDAY', 'WEEKEND', 'HOLIDAY', 'WFH', 'ANY'),
+    actions_mask INTEGER,
+    custom_message VARCHAR(255),
+    quote_source VARCHAR(255),
+    show_traffic BOOLEAN NOT NULL,
+    show_weather BOOLEAN NOT NULL,
+    show_location BOOLEAN NOT NULL,
+    show_time BOOLEAN NOT NULL,
+    show_date BOOLEAN NOT NULL,
+    enabled BOOLEAN NOT NULL,
+    priority INTEGER NOT NULL,
+    device_id VARCHAR(255)
+);
+
+-- Added after the first release; legacy routine_actions rows are folded in by RoutineActionsMigration
+ALTER TABLE routines ADD COLUMN IF NOT EXISTS actions_mask INTEGER;
+ALTER TABLE routines ADD COLUMN IF NOT EXISTS device_id VARCHAR(255);
+
+CREATE TABLE IF NOT EXISTS routine_active_days (
+    routine_id BIGINT NOT NULL,
+    active_days ENUM ('MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY'),
+    CONSTRAINT fk_routine_active_days_routine FOREIGN KEY (routine_id) REFERENCES routines (id)
+);
+
+CREATE TABLE IF NOT EXISTS widget_snapshots (
+    id VARCHAR(255) PRIMARY KEY,
+    widget VARCHAR(255),
+    cache_key VARCHAR(255),
+    payload CHARACTER LARGE OBJECT,
+    fetched_at BIGINT NOT NULL
+);
@@ -0,0 +1,11 @@
+-- Indexes for the per-request lookups. user_preferences(user_id) is already served by the index
+-- behind its unique constraint.
+
+-- SystemSettingsRepository.findValueByKey: setting_key = ? AND enabled = true
+CREATE INDEX IF NOT EXISTS idx_system_settings_key_enabled ON system_settings (setting_key, enabled);
+
+-- RoutineRepository.findByEnabledTrueOrderByPriorityDesc, read in index order
+CREATE INDEX IF NOT EXISTS idx_routines_enabled_priority ON routines (enabled, priority DESC);
+
+-- RoutineRepository.findByDeviceIdIsNullOrDeviceId
+CREATE INDEX IF NOT EXISTS idx_routines_device ON routines (device_id);
@@ -0,0 +1,28 @@
+-- Folds the routine_actions element collection of the first release into routines.actions_mask.
+-- Bit n stands for the ActionType with ordinal n (see ActionSetConverter); unknown actions are dropped.
+-- Databases created after the first release never had the table, so it is created empty for them.
+CREATE TABLE IF NOT EXISTS routine_actions (
+    routine_id BIGINT NOT NULL,
+    actions VARCHAR(255)
+);
+
+-- Distinct actions are distinct powers of two, so their sum is the mask
+UPDATE routines r SET actions_mask = (
+    SELECT COALESCE(SUM(DISTINCT CASE a.actions
+        WHEN 'SHOW_GREETING' THEN 1
+        WHEN 'SHOW_QUOTE' THEN 2
+        WHEN 'SHOW_TRAFFIC' THEN 4
+        WHEN 'SHOW_WEATHER' THEN 8
+        WHEN 'SHOW_LOCATION' THEN 16
+        WHEN 'SHOW_TIME' THEN 32
+        WHEN 'SHOW_DATE' THEN 64
+        WHEN 'SHOW_CUSTOM_MESSAGE' THEN 128
+    END), 0)
+    FROM routine_actions a
+    WHERE a.routine_id = r.id
+)
+WHERE EXISTS (SELECT 1 FROM routine_actions a WHERE a.routine_id = r.id);
+
+UPDATE routines SET actions_mask = 0 WHERE actions_mask IS NULL;
+
+DROP TABLE routine_actions;
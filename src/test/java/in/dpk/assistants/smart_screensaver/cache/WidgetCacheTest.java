@@ -0,0 +1,143 @@
+package in.dpk.assistants.smart_screensaver.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WidgetCacheTest {
+
+    @Test
+    @DisplayName("Should load once and serve fresh entries from cache")
+    void shouldServeFreshEntriesFromCache() {
+        WidgetCache<String> cache = new WidgetCache<>("test", Duration.ofMinutes(5), Duration.ofHours(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        WidgetCache.Lookup<String> first = cache.getOrRefresh("key", () -> "value-" + loads.incrementAndGet());
+        WidgetCache.Lookup<String> second = cache.getOrRefresh("key", () -> "value-" + loads.incrementAndGet());
+
+        assertEquals("value-1", first.value());
+        assertEquals("value-1", second.value());
+        assertFalse(second.stale());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should serve stale entry immediately and refresh in background")
+    void shouldServeStaleWhileRevalidating() throws InterruptedException {
+        WidgetCache<String> cache = new WidgetCache<>("test", Duration.ofMillis(1), Duration.ofHours(1));
+        AtomicInteger loads = new AtomicInteger();
+        cache.getOrRefresh("key", () -> "value-" + loads.incrementAndGet());
+        Thread.sleep(5);
+
+        WidgetCache.Lookup<String> stale = cache.getOrRefresh("key", () -> "value-" + loads.incrementAndGet());
+
+        assertTrue(stale.stale());
+        assertEquals("value-1", stale.value());
+
+        // Wait for the single background refresh to land
+        long deadline = System.currentTimeMillis() + 2000;
+        while (loads.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(20);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not cache failed loads")
+    void shouldNotCacheFailedLoads() {
+        WidgetCache<String> cache = new WidgetCache<>("test", Duration.ofMinutes(5));
+
+        assertNull(cache.getOrRefresh("key", () -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should mark stale payloads in the source field")
+    void shouldMarkStalePayloads() {
+        Map<String, Object> payload = Map.of("source", "ip", "city", "Bangalore");
+
+        Map<String, Object> stale = WidgetCache.markStale(payload);
+
+        assertEquals("ip (stale)", stale.get("source"));
+        assertEquals("Bangalore", stale.get("city"));
+        assertEquals("ip", payload.get("source"));
+    }
+
+    @Test
+    @DisplayName("Should count hits, misses and evictions")
+    void shouldCountHitsMissesAndEvictions() {
+        WidgetCache<String> cache = new WidgetCache<>("test", Duration.ofMinutes(5));
+
+        cache.getOrRefresh("a", () -> "value");
+        cache.getOrRefresh("a", () -> "value");
+        cache.get("b");
+        cache.evict("a");
+        cache.evict("a");
+
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getStaleHits());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    @DisplayName("Should replace entries in place, notify the load listener and evict by key")
+    void shouldPutAndEvictByKey() {
+        WidgetCache<String> cache = new WidgetCache<>("test", Duration.ofMinutes(5));
+        Map<String, String> written = new HashMap<>();
+        cache.onLoad(written::put);
+        cache.getOrRefresh("2025-06-10", () -> "old");
+        cache.getOrRefresh("2025-06-11", () -> "fallback");
+
+        cache.put("2025-06-11", "fetched");
+
+        assertEquals("fetched", cache.get("2025-06-11"));
+        assertEquals("fetched", written.get("2025-06-11"));
+        assertEquals(1, cache.evictIf(key -> key.compareTo("2025-06-11") < 0));
+        assertNull(cache.get("2025-06-10"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should not bring back an entry evicted while it was refreshing")
+    void shouldNotReinsertEvictedEntry() throws InterruptedException {
+        WidgetCache<String> cache = new WidgetCache<>("test", Duration.ofMinutes(5), Duration.ofHours(1));
+        cache.restore("old-location", "stale", System.currentTimeMillis() - Duration.ofMinutes(10).toMillis());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        WidgetCache.Lookup<String> lookup = cache.getOrRefresh("old-location", () -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            loads.incrementAndGet();
+            return "refreshed";
+        });
+        assertTrue(lookup.stale());
+        assertTrue(loading.await(2, TimeUnit.SECONDS));
+
+        assertTrue(cache.evict("old-location"));
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 2000;
+        while (loads.get() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(20);
+
+        assertEquals(1, loads.get());
+        assertEquals(0, cache.size());
+    }
+}
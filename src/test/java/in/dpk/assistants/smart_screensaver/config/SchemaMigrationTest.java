@@ -0,0 +1,82 @@
+package in.dpk.assistants.smart_screensaver.config;
+
+import in.dpk.assistants.smart_screensaver.entity.ActionSetConverter;
+import in.dpk.assistants.smart_screensaver.entity.Routine;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts on an empty database with the production settings, so Hibernate validates the entities
+ * against the schema built by the Flyway scripts alone.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:migrationdb"
+})
+class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should apply all migrations to an empty database")
+    void shouldApplyAllMigrations() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\" ORDER BY \"installed_rank\"", String.class);
+        
+        assertTrue(versions.containsAll(List.of("1", "2", "3")));
+    }
+
+    @Test
+    @DisplayName("Should create indexes for the lookup queries")
+    void shouldCreateLookupIndexes() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES", String.class);
+        
+        assertTrue(indexes.contains("idx_system_settings_key_enabled"));
+        assertTrue(indexes.contains("idx_routines_enabled_priority"));
+        assertTrue(indexes.contains("idx_routines_device"));
+    }
+
+    @Test
+    @DisplayName("Should seed defaults into the migrated schema")
+    void shouldSeedDefaultsIntoMigratedSchema() {
+        Integer settings = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM system_settings", Integer.class);
+        Integer routines = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM routines", Integer.class);
+        
+        assertTrue(settings >= 11);
+        assertTrue(routines >= 3);
+    }
+
+    @Test
+    @DisplayName("Should fold legacy routine actions into the actions mask")
+    void shouldMigrateLegacyRoutineActions() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:legacyactionsdb;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate legacy = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+        legacy.execute("CREATE TABLE routine_actions (routine_id BIGINT NOT NULL, actions VARCHAR(255))");
+        legacy.update("INSERT INTO routines (id, name, show_traffic, show_weather, show_location, show_time, show_date, enabled, priority) "
+                + "VALUES (1, 'Legacy', false, false, false, false, false, true, 1), (2, 'No actions', false, false, false, false, false, true, 1)");
+        legacy.update("INSERT INTO routine_actions (routine_id, actions) VALUES (1, 'SHOW_QUOTE'), (1, 'SHOW_WEATHER'), "
+                + "(1, 'SHOW_WEATHER'), (1, 'RETIRED_ACTION')");
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        assertEquals(ActionSetConverter.toMask(EnumSet.of(Routine.ActionType.SHOW_QUOTE, Routine.ActionType.SHOW_WEATHER)),
+                legacy.queryForObject("SELECT actions_mask FROM routines WHERE id = 1", Integer.class));
+        assertEquals(0, legacy.queryForObject("SELECT actions_mask FROM routines WHERE id = 2", Integer.class));
+        assertEquals(0, legacy.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = 'ROUTINE_ACTIONS'", Integer.class));
+    }
+}
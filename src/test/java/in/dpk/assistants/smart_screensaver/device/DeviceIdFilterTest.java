@@ -0,0 +1,66 @@
+package in.dpk.assistants.smart_screensaver.device;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceIdFilterTest {
+
+    private final DeviceIdFilter filter = new DeviceIdFilter();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Should prefer the device header over parameter and cookie")
+    void shouldPreferHeader() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(DeviceContext.HEADER, "lobby-1");
+        request.setParameter(DeviceContext.PARAMETER, "lobby-2");
+        request.setCookies(new Cookie(DeviceContext.COOKIE, "lobby-3"));
+
+        assertEquals("lobby-1", resolve(request, new MockHttpServletResponse()));
+    }
+
+    @Test
+    @DisplayName("Should remember a device given as query parameter in a cookie")
+    void shouldRememberParameterInCookie() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter(DeviceContext.PARAMETER, "kitchen");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertEquals("kitchen", resolve(request, response));
+        assertNotNull(response.getCookie(DeviceContext.COOKIE));
+        assertEquals("kitchen", response.getCookie(DeviceContext.COOKIE).getValue());
+
+        MockHttpServletRequest next = new MockHttpServletRequest();
+        next.setCookies(response.getCookie(DeviceContext.COOKIE));
+        assertEquals("kitchen", resolve(next, new MockHttpServletResponse()));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the default device for missing or invalid IDs")
+    void shouldFallBackToDefaultDevice() throws Exception {
+        assertEquals(DeviceContext.DEFAULT_DEVICE_ID, DeviceContext.currentDeviceId());
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(DeviceContext.HEADER, "../etc/passwd");
+        assertEquals(DeviceContext.DEFAULT_DEVICE_ID, resolve(request, new MockHttpServletResponse()));
+    }
+
+    private String resolve(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        filter.doFilter(request, response, new MockFilterChain());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return DeviceContext.currentDeviceId();
+    }
+}
@@ -0,0 +1,46 @@
+package in.dpk.assistants.smart_screensaver.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionSetConverterTest {
+
+    private final ActionSetConverter converter = new ActionSetConverter();
+
+    @Test
+    @DisplayName("Should store one bit per action ordinal and read it back")
+    void shouldRoundTripActions() {
+        EnumSet<Routine.ActionType> actions = EnumSet.of(Routine.ActionType.SHOW_GREETING,
+                Routine.ActionType.SHOW_WEATHER, Routine.ActionType.SHOW_CUSTOM_MESSAGE);
+
+        Integer mask = converter.convertToDatabaseColumn(actions);
+
+        assertEquals(0b10001001, mask);
+        assertEquals(actions, converter.convertToEntityAttribute(mask));
+    }
+
+    @Test
+    @DisplayName("Should treat missing values as no actions")
+    void shouldHandleEmptyValues() {
+        assertEquals(0, converter.convertToDatabaseColumn(null));
+        assertEquals(0, converter.convertToDatabaseColumn(EnumSet.noneOf(Routine.ActionType.class)));
+        assertTrue(converter.convertToEntityAttribute(null).isEmpty());
+        assertTrue(converter.convertToEntityAttribute(0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should accept action lists with duplicates on the entity")
+    void shouldCollapseDuplicateActions() {
+        Routine routine = new Routine();
+        routine.setActions(List.of(Routine.ActionType.SHOW_DATE, Routine.ActionType.SHOW_QUOTE,
+                Routine.ActionType.SHOW_DATE));
+
+        assertEquals(EnumSet.of(Routine.ActionType.SHOW_QUOTE, Routine.ActionType.SHOW_DATE), routine.getActions());
+        assertEquals(ActionSetConverter.toMask(routine.getActions()), routine.snapshot().actionMask());
+    }
+}
@@ -0,0 +1,66 @@
+package in.dpk.assistants.smart_screensaver.jfr;
+
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should enable the application events in the bundled profile")
+    void shouldEnableApplicationEventsInProfile() throws Exception {
+        Configuration configuration;
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/jfr/screensaver.jfc"), StandardCharsets.UTF_8)) {
+            configuration = Configuration.create(reader);
+        }
+
+        assertEquals("true", configuration.getSettings().get("in.dpk.screensaver.ContentAssembled#enabled"));
+        assertEquals("true", configuration.getSettings().get("in.dpk.screensaver.UpstreamCall#enabled"));
+        assertEquals("true", configuration.getSettings().get("in.dpk.screensaver.SettingsLookup#enabled"));
+    }
+
+    @Test
+    @DisplayName("Should record upstream calls with provider, status and size")
+    void shouldRecordUpstreamCalls() throws Exception {
+        ScreensaverMetrics metrics = new ScreensaverMetrics(new SimpleMeterRegistry());
+        Path file = tempDir.resolve("upstream.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(UpstreamCall.class).withoutThreshold();
+            recording.start();
+            metrics.upstream("quotable", () -> "{\"content\":\"\u00e9\"}");
+            assertThrows(IllegalStateException.class, () -> metrics.upstream("weather", () -> {
+                throw new IllegalStateException("down");
+            }));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(2, events.size());
+        assertEquals("quotable", events.get(0).getString("provider"));
+        assertEquals("success", events.get(0).getString("status"));
+        assertEquals(16, events.get(0).getLong("bytes"));
+        assertEquals("weather", events.get(1).getString("provider"));
+        assertEquals("error", events.get(1).getString("status"));
+        assertEquals(0, events.get(1).getLong("bytes"));
+    }
+}
@@ -0,0 +1,91 @@
+package in.dpk.assistants.smart_screensaver.metrics;
+
+import in.dpk.assistants.smart_screensaver.cache.WidgetCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScreensaverMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ScreensaverMetrics metrics = new ScreensaverMetrics(registry);
+
+    @Test
+    @DisplayName("Should time upstream calls by provider and outcome")
+    void shouldTimeUpstreamCalls() {
+        assertEquals("ok", metrics.upstream("weather", () -> "ok"));
+        assertNull(metrics.upstream("weather", () -> null));
+        assertThrows(IllegalStateException.class, () -> metrics.upstream("weather", () -> {
+            throw new IllegalStateException("down");
+        }));
+
+        assertEquals(1, upstreamCount("weather", "success"));
+        assertEquals(1, upstreamCount("weather", "empty"));
+        assertEquals(1, upstreamCount("weather", "error"));
+    }
+
+    @Test
+    @DisplayName("Should time content assembly per stage")
+    void shouldTimeStages() {
+        metrics.stage("quote", () -> "text");
+        metrics.stage("quote", () -> "text");
+
+        assertEquals(2, registry.get(ScreensaverMetrics.CONTENT_ASSEMBLY).tag("stage", "quote").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should publish cache hits, misses, evictions and size")
+    void shouldPublishCacheCounts() {
+        WidgetCache<String> cache = new WidgetCache<>("quote", Duration.ofMinutes(5));
+        metrics.monitor(cache);
+
+        cache.getOrRefresh("a", () -> "value");
+        cache.getOrRefresh("a", () -> "value");
+        cache.getOrRefresh("b", () -> "value");
+        cache.evict("b");
+
+        assertEquals(1, cacheRequests("hit"));
+        assertEquals(2, cacheRequests("miss"));
+        assertEquals(1, registry.get(ScreensaverMetrics.CACHE_EVICTIONS).tag("cache", "quote").functionCounter().count());
+        assertEquals(1, registry.get(ScreensaverMetrics.CACHE_SIZE).tag("cache", "quote").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should record statements run per request by route")
+    void shouldRecordQueriesPerRequest() throws Exception {
+        QueryCounter queryCounter = new QueryCounter();
+        QueryCountFilter filter = new QueryCountFilter(queryCounter, metrics);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/settings/user");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/settings/user");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (ServletRequest req, ServletResponse res) -> {
+            queryCounter.inspect("select 1");
+            queryCounter.inspect("select 2");
+        });
+        queryCounter.inspect("select 3");
+
+        DistributionSummary summary = registry.get(ScreensaverMetrics.DB_QUERIES).tag("uri", "/api/settings/user").summary();
+        assertEquals(1, summary.count());
+        assertEquals(2, summary.totalAmount());
+    }
+
+    private long upstreamCount(String provider, String outcome) {
+        return registry.get(ScreensaverMetrics.UPSTREAM_REQUESTS)
+                .tags("provider", provider, "outcome", outcome).timer().count();
+    }
+
+    private double cacheRequests(String result) {
+        return registry.get(ScreensaverMetrics.CACHE_REQUESTS).tags("cache", "quote", "result", result)
+                .functionCounter().count();
+    }
+}
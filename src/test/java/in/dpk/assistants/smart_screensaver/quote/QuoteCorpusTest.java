@@ -0,0 +1,86 @@
+package in.dpk.assistants.smart_screensaver.quote;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteCorpusTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should load bundled quotes together with a user corpus file")
+    void shouldLoadBundledAndUserQuotes() throws IOException {
+        QuoteCorpus bundledOnly = new QuoteCorpus("", tempDir.resolve("bundled.bin").toString());
+        QuoteCorpus corpus = corpus(List.of(
+                "# comment lines and malformed lines are skipped",
+                "Stay hungry, stay foolish.\tStewart Brand\tTesting",
+                "no author on this line",
+                "Ünïcödé survives the string table.\tSomeone\tTesting"));
+
+        assertTrue(bundledOnly.size() > 0);
+        assertEquals(bundledOnly.size() + 2, corpus.size());
+        assertTrue(corpus.getCategories().contains("testing"));
+    }
+
+    @Test
+    @DisplayName("Should pick quotes from the requested category")
+    void shouldFilterByCategory() throws IOException {
+        QuoteCorpus corpus = corpus(List.of("Ünïcödé survives the string table.\tSomeone\tTesting"));
+
+        for (int i = 0; i < 10; i++) {
+            Map<String, Object> quote = corpus.random("TESTING");
+            assertEquals("Ünïcödé survives the string table.", quote.get("text"));
+            assertEquals("Someone", quote.get("author"));
+            assertEquals("corpus", quote.get("source"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the same quote for the same date")
+    void shouldSelectDeterministicallyByDate() throws IOException {
+        QuoteCorpus first = corpus(List.of());
+        QuoteCorpus second = new QuoteCorpus("", tempDir.resolve("second.bin").toString());
+        LocalDate day = LocalDate.of(2024, 3, 15);
+
+        assertEquals(first.forDate(day), second.forDate(day));
+        assertNotNull(first.forDate(day).get("text"));
+    }
+
+    @Test
+    @DisplayName("Should reuse an up-to-date table and rebuild it when the user corpus changes")
+    void shouldRebuildTableOnlyWhenSourcesChange() throws IOException {
+        Path table = tempDir.resolve("corpus.bin");
+        corpus(List.of("Stay hungry, stay foolish.\tStewart Brand\tTesting"));
+        FileTime built = FileTime.fromMillis(1_000_000_000_000L);
+        Files.setLastModifiedTime(table, built);
+
+        QuoteCorpus reused = corpus(List.of("Stay hungry, stay foolish.\tStewart Brand\tTesting"));
+        assertEquals(built, Files.getLastModifiedTime(table));
+        assertEquals("Stay hungry, stay foolish.", reused.random("testing").get("text"));
+
+        QuoteCorpus rebuilt = corpus(List.of("Ünïcödé survives the string table.\tSomeone\tTesting"));
+        assertNotEquals(built, Files.getLastModifiedTime(table));
+        assertEquals("Ünïcödé survives the string table.", rebuilt.random("testing").get("text"));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertTrue(files.noneMatch(path -> path.toString().endsWith(".tmp")));
+        }
+    }
+
+    private QuoteCorpus corpus(List<String> lines) throws IOException {
+        Path file = Files.write(tempDir.resolve("quotes.tsv"), lines);
+        return new QuoteCorpus(file.toString(), tempDir.resolve("corpus.bin").toString());
+    }
+}
@@ -0,0 +1,59 @@
+package in.dpk.assistants.smart_screensaver.quote;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuotePoolTest {
+
+    @Test
+    @DisplayName("Should serve quotes in insertion order and wrap around")
+    void shouldServeQuotesInOrder() {
+        QuotePool pool = new QuotePool(2);
+
+        assertTrue(pool.offer(quote("First quote")));
+        assertTrue(pool.offer(quote("Second quote")));
+        assertFalse(pool.offer(quote("Third quote")));
+        assertEquals("First quote", pool.poll().get("text"));
+        assertTrue(pool.offer(quote("Third quote")));
+
+        assertEquals("Second quote", pool.poll().get("text"));
+        assertEquals("Third quote", pool.poll().get("text"));
+        assertNull(pool.poll());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    @DisplayName("Should reject quotes with the same normalized text")
+    void shouldDeduplicateByNormalizedText() {
+        QuotePool pool = new QuotePool(4);
+
+        assertTrue(pool.offer(quote("Be the change you wish to see.")));
+        assertFalse(pool.offer(quote("be the change, you wish to see")));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    @DisplayName("Should not accept recently served quotes again")
+    void shouldRejectRecentlyServedQuotes() {
+        QuotePool pool = new QuotePool(2);
+        pool.offer(quote("One"));
+        pool.poll();
+
+        assertFalse(pool.offer(quote("One")));
+
+        // Two more served quotes push "One" out of the served window
+        pool.offer(quote("Two"));
+        pool.offer(quote("Three"));
+        pool.poll();
+        pool.poll();
+        assertTrue(pool.offer(quote("One")));
+    }
+
+    private Map<String, Object> quote(String text) {
+        return Map.of("text", text, "author", "Someone");
+    }
+}
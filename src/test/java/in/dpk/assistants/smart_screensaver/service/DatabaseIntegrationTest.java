@@ -2,6 +2,11 @@ package in.dpk.assistants.smart_screensaver.service;
 
 import in.dpk.assistants.smart_screensaver.entity.UserPreference;
 import in.dpk.assistants.smart_screensaver.entity.Routine;
+import in.dpk.assistants.smart_screensaver.repository.UserPreferenceRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +27,15 @@ class DatabaseIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserPreferenceRepository userPreferenceRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SystemSettingsService systemSettingsService;
+
     @Test
     @DisplayName("Should load user preferences from database")
     void shouldLoadUserPreferencesFromDatabase() {
@@ -112,4 +126,31 @@ class DatabaseIntegrationTest {
         assertNotNull(retrievedRoutine);
         assertEquals("Test Routine", retrievedRoutine.getName());
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should serve repeated preference lookups from the query cache")
+    void shouldServeRepeatedPreferenceLookupsFromQueryCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        
+        userPreferenceRepository.findByUserId("default");
+        CacheRegionStatistics region = statistics.getQueryRegionStatistics("preference-queries");
+        long hits = region.getHitCount();
+        userPreferenceRepository.findByUserId("default");
+        
+        assertEquals(hits + 1, region.getHitCount());
+        assertNotNull(statistics.getDomainDataRegionStatistics("preferences"));
+    }
+
+    @Test
+    @DisplayName("Should seed default settings once and skip existing keys")
+    void shouldSeedDefaultSettingsOnce() {
+        int seeded = systemSettingsService.getAllSettings().size();
+        
+        systemSettingsService.initializeDefaultSettings();
+        
+        assertTrue(seeded >= 11);
+        assertEquals(seeded, systemSettingsService.getAllSettings().size());
+        assertEquals(10, systemSettingsService.getApiTimeout());
+        assertEquals("https://ipapi.co/json/", systemSettingsService.getApiUrl("location"));
+    }
+}
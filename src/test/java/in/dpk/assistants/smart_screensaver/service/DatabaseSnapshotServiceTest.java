@@ -0,0 +1,51 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseSnapshotServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should restore a snapshot into a fresh in-memory database")
+    void shouldRestoreSnapshotIntoFreshDatabase() {
+        Path file = tempDir.resolve("snapshots/db.sql.gz");
+        JdbcTemplate source = jdbc("snapshot-source");
+        source.execute("CREATE TABLE settings (setting_key VARCHAR(64) PRIMARY KEY, setting_value VARCHAR(64))");
+        source.update("INSERT INTO settings VALUES (?, ?)", "api.timeout", "10");
+
+        service(source, file).snapshot();
+        assertTrue(Files.isRegularFile(file));
+
+        JdbcTemplate target = jdbc("snapshot-target");
+        assertTrue(service(target, file).restore());
+        assertEquals("10", target.queryForObject(
+                "SELECT setting_value FROM settings WHERE setting_key = ?", String.class, "api.timeout"));
+    }
+
+    @Test
+    @DisplayName("Should start empty when there is no snapshot yet")
+    void shouldStartEmptyWithoutSnapshot() {
+        assertFalse(service(jdbc("snapshot-empty"), tempDir.resolve("missing.sql.gz")).restore());
+    }
+
+    private DatabaseSnapshotService service(JdbcTemplate jdbcTemplate, Path file) {
+        return new DatabaseSnapshotService(jdbcTemplate, file.toString(),
+                new DefaultListableBeanFactory().getBeanProvider(WidgetSnapshotService.class));
+    }
+
+    private static JdbcTemplate jdbc(String name) {
+        return new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+}
@@ -0,0 +1,64 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Closes the application context like a shutdown of the {@code memory} profile would.
+ */
+@SpringBootTest
+@DirtiesContext
+class DatabaseSnapshotShutdownTest {
+
+    private static final String WIDGET = "shutdown-test";
+
+    @TempDir
+    static Path snapshotDir;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private WidgetSnapshotService widgetSnapshotService;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:shutdownsnapshotdb;DB_CLOSE_DELAY=-1");
+        registry.add("app.storage.snapshot-file", () -> snapshotFile().toString());
+    }
+
+    @Test
+    @DisplayName("Should write the snapshot, including pending widget snapshots, when the context closes")
+    void shouldSnapshotOnClose() {
+        assertFalse(Files.exists(snapshotFile()));
+        widgetSnapshotService.save(WIDGET, "today", Map.of("text", "pending at shutdown"));
+
+        context.close();
+
+        assertTrue(Files.isRegularFile(snapshotFile()));
+        JdbcTemplate restored = new JdbcTemplate(
+                new DriverManagerDataSource("jdbc:h2:mem:shutdownrestoredb;DB_CLOSE_DELAY=-1", "sa", ""));
+        restored.execute("RUNSCRIPT FROM '" + snapshotFile() + "' COMPRESSION GZIP");
+        assertEquals(1, restored.queryForObject(
+                "SELECT COUNT(*) FROM widget_snapshots WHERE widget = ?", Integer.class, WIDGET));
+    }
+
+    private static Path snapshotFile() {
+        return snapshotDir.resolve("db.sql.gz");
+    }
+}
@@ -0,0 +1,145 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import in.dpk.assistants.smart_screensaver.device.DeviceContext;
+import in.dpk.assistants.smart_screensaver.entity.Routine;
+import in.dpk.assistants.smart_screensaver.entity.UserPreference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two kiosks on one server: each request runs as the device its {@code X-Device-Id} names.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:deviceprofilesdb"
+})
+class DeviceProfilesTest {
+
+    private static final String LOBBY = "lobby-1";
+    private static final String KITCHEN = "kitchen";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LocationService locationService;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Should keep preferences per device and leave the default profile alone")
+    void shouldKeepPreferencesPerDevice() {
+        asDevice(LOBBY);
+        UserPreference lobby = userService.getUserPreference();
+        lobby.setDisplayName("Lobby");
+        assertNotNull(userService.updateDevicePreference(lobby));
+
+        asDevice(KITCHEN);
+        UserPreference kitchen = userService.getUserPreference();
+        assertEquals("User", kitchen.getDisplayName());
+        kitchen.setDisplayName("Kitchen");
+        assertNotNull(userService.updateDevicePreference(kitchen));
+
+        asDevice(LOBBY);
+        assertEquals("Lobby", userService.getUserPreference().getDisplayName());
+        asDevice(KITCHEN);
+        assertEquals("Kitchen", userService.getUserPreference().getDisplayName());
+        asDevice(DeviceContext.DEFAULT_DEVICE_ID);
+        assertEquals("User", userService.getUserPreference().getDisplayName());
+    }
+
+    @Test
+    @DisplayName("Should show a device its own routines and the shared ones only")
+    void shouldKeepRoutinesPerDevice() {
+        asDevice(LOBBY);
+        Routine lobby = userService.createRoutine(routine("Lobby routine"));
+        assertEquals(LOBBY, lobby.getDeviceId());
+
+        asDevice(KITCHEN);
+        assertNull(userService.getRoutineById(lobby.getId()));
+        assertTrue(userService.getAllRoutines().stream().noneMatch(routine -> routine.getId().equals(lobby.getId())));
+
+        asDevice(LOBBY);
+        assertNotNull(userService.getRoutineById(lobby.getId()));
+        assertTrue(userService.getAllRoutines().stream().anyMatch(routine -> routine.getId().equals(lobby.getId())));
+    }
+
+    @Test
+    @DisplayName("Should reject updating or deleting another device's routine")
+    void shouldRejectCrossDeviceWrites() {
+        asDevice(LOBBY);
+        Routine lobby = userService.createRoutine(routine("Lobby only"));
+
+        asDevice(KITCHEN);
+        Routine takeover = routine("Taken over");
+        takeover.setDeviceId(KITCHEN);
+        assertNull(userService.updateRoutine(lobby.getId(), takeover));
+        assertFalse(userService.deleteRoutine(lobby.getId()));
+
+        asDevice(LOBBY);
+        Routine stored = userService.getRoutineById(lobby.getId());
+        assertNotNull(stored);
+        assertEquals("Lobby only", stored.getName());
+    }
+
+    @Test
+    @DisplayName("Should keep a routine on its device when an update names another one")
+    void shouldKeepRoutineDeviceOnUpdate() {
+        asDevice(LOBBY);
+        Routine lobby = userService.createRoutine(routine("Lobby routine"));
+        Routine moved = routine("Renamed");
+        moved.setDeviceId(KITCHEN);
+
+        Routine updated = userService.updateRoutine(lobby.getId(), moved);
+
+        assertNotNull(updated);
+        assertEquals("Renamed", updated.getName());
+        assertEquals(LOBBY, updated.getDeviceId());
+    }
+
+    @Test
+    @DisplayName("Should keep browser locations per device")
+    void shouldKeepLocationsPerDevice() {
+        asDevice(LOBBY);
+        locationService.setBrowserLocation(12.97, 77.59, "Bengaluru", "Karnataka", "India");
+        asDevice(KITCHEN);
+        locationService.setBrowserLocation(28.61, 77.21, "Delhi", "Delhi", "India");
+
+        asDevice(LOBBY);
+        assertEquals("Bengaluru", locationService.getLocationInfo().get("city"));
+        asDevice(KITCHEN);
+        assertEquals("Delhi", locationService.getLocationInfo().get("city"));
+        assertTrue(locationService.isLocationInUse("12.97,77.59"));
+        assertTrue(locationService.isLocationInUse("28.61,77.21"));
+    }
+
+    private static void asDevice(String deviceId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(DeviceContext.class.getName() + ".deviceId", deviceId);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static Routine routine(String name) {
+        Routine routine = new Routine();
+        routine.setName(name);
+        routine.setStartTime(LocalTime.of(9, 0));
+        routine.setEndTime(LocalTime.of(17, 0));
+        routine.setDayCategory(Routine.DayCategory.WORKDAY);
+        routine.setEnabled(true);
+        return routine;
+    }
+}
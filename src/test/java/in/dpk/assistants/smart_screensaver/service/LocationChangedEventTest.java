@@ -0,0 +1,228 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import in.dpk.assistants.smart_screensaver.cache.WidgetCache;
+import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.entity.UserPreference;
+import in.dpk.assistants.smart_screensaver.entity.WidgetSnapshot;
+import in.dpk.assistants.smart_screensaver.event.LocationChangedEvent;
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import in.dpk.assistants.smart_screensaver.timeseries.TimeSeriesStore;
+import in.dpk.assistants.smart_screensaver.weather.HourlyForecast;
+import in.dpk.assistants.smart_screensaver.weather.WeatherBatchClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationChangedEventTest {
+
+    private static final String BENGALURU = "12.97,77.59";
+    private static final String DELHI = "28.61,77.21";
+
+    @TempDir
+    Path tempDir;
+
+    private final ExternalApiConfig apiConfig = new ExternalApiConfig();
+    private final ScreensaverMetrics metrics = new ScreensaverMetrics(new SimpleMeterRegistry());
+    private final Map<String, AtomicInteger> fetches = new ConcurrentHashMap<>();
+    private final Set<String> locationsInUse = ConcurrentHashMap.newKeySet();
+    private final Map<String, Object> currentLocation = new ConcurrentHashMap<>();
+    private AnnotationConfigApplicationContext context;
+    private WeatherForecastService forecastService;
+    private ExternalDataService externalDataService;
+
+    @BeforeEach
+    void setUp() {
+        WidgetSnapshotService snapshots = widgetSnapshotService();
+        SystemSettingsService settings = systemSettingsService();
+        LocationService locationService = locationService(snapshots);
+        TimeSeriesStore history = new TimeSeriesStore(tempDir.toString(), 16384);
+        UserService userService = new UserService() {
+            @Override
+            public UserPreference.Snapshot getPreferenceSnapshot() {
+                return null;
+            }
+        };
+
+        forecastService = new WeatherForecastService(weatherBatchClient(), settings, apiConfig, snapshots,
+                locationService, history);
+        externalDataService = new ExternalDataService(null, apiConfig, locationService, settings, forecastService,
+                snapshots, userService, null, new TrafficService(apiConfig, userService, snapshots, history),
+                null, history, metrics);
+
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(WeatherForecastService.class, () -> forecastService);
+        context.refresh();
+        moveTo(BENGALURU, "Bengaluru");
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    @DisplayName("Should evict the forecast of a location no display is at anymore")
+    void shouldEvictForecastOfOldLocation() {
+        assertNotNull(forecastService.getForecast(BENGALURU));
+        assertNotNull(forecastService.getForecast(BENGALURU));
+        assertEquals(1, fetchCount(BENGALURU));
+
+        moveTo(DELHI, "Delhi");
+        context.publishEvent(new LocationChangedEvent("lobby-1", BENGALURU, DELHI));
+
+        assertNotNull(forecastService.getForecast(BENGALURU));
+        assertEquals(2, fetchCount(BENGALURU));
+    }
+
+    @Test
+    @DisplayName("Should keep the forecast while another display is still at the old location")
+    void shouldKeepForecastInUseByAnotherDisplay() {
+        forecastService.getForecast(BENGALURU);
+        locationsInUse.add(BENGALURU);
+
+        moveTo(DELHI, "Delhi");
+        context.publishEvent(new LocationChangedEvent("lobby-1", BENGALURU, DELHI));
+
+        forecastService.getForecast(BENGALURU);
+        assertEquals(1, fetchCount(BENGALURU));
+    }
+
+    @Test
+    @DisplayName("Should stop refreshing the forecast of a location whose displays went idle")
+    void shouldPruneForecastsOfIdleLocations() {
+        forecastService.getForecast(BENGALURU);
+        forecastService.getForecast(DELHI);
+        locationsInUse.add(DELHI);
+
+        forecastService.refreshForecasts();
+
+        assertEquals(1, fetchCount(BENGALURU));
+        assertEquals(2, fetchCount(DELHI));
+        forecastService.getForecast(BENGALURU);
+        assertEquals(2, fetchCount(BENGALURU));
+    }
+
+    @Test
+    @DisplayName("Should prefetch the forecast of the new location")
+    void shouldPrefetchNewLocation() throws InterruptedException {
+        moveTo(DELHI, "Delhi");
+        context.publishEvent(new LocationChangedEvent("lobby-1", BENGALURU, DELHI));
+
+        for (int i = 0; i < 100 && fetchCount(DELHI) == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, fetchCount(DELHI));
+    }
+
+    @Test
+    @DisplayName("Should serve weather and traffic for the new location after a change")
+    void shouldServeWidgetsForNewLocation() {
+        assertEquals("Bengaluru", externalDataService.getWeatherInfo().get("location"));
+        assertEquals("Bengaluru", externalDataService.getTrafficInfo().get("location"));
+
+        moveTo(DELHI, "Delhi");
+        context.publishEvent(new LocationChangedEvent("lobby-1", BENGALURU, DELHI));
+
+        assertEquals("Delhi", externalDataService.getWeatherInfo().get("location"));
+        assertEquals("Delhi", externalDataService.getTrafficInfo().get("location"));
+        assertTrue(fetchCount(DELHI) >= 1);
+    }
+
+    private void moveTo(String locationKey, String city) {
+        String[] coordinates = locationKey.split(",");
+        currentLocation.clear();
+        currentLocation.put("latitude", coordinates[0]);
+        currentLocation.put("longitude", coordinates[1]);
+        currentLocation.put("city", city);
+        currentLocation.put("source", "browser");
+    }
+
+    private int fetchCount(String locationKey) {
+        AtomicInteger count = fetches.get(locationKey);
+        return count != null ? count.get() : 0;
+    }
+
+    private static HourlyForecast forecast() {
+        long start = Instant.now().getEpochSecond() / HourlyForecast.STEP_SECONDS * HourlyForecast.STEP_SECONDS;
+        float[] temperature = new float[48];
+        short[] humidity = new short[48];
+        short[] weatherCode = new short[48];
+        for (int i = 0; i < 48; i++) {
+            temperature[i] = 20 + i % 5;
+            humidity[i] = 60;
+        }
+        return new HourlyForecast(start, temperature, humidity, weatherCode, System.currentTimeMillis());
+    }
+
+    private WeatherBatchClient weatherBatchClient() {
+        return new WeatherBatchClient(null, null, apiConfig, null, metrics) {
+            @Override
+            public CompletableFuture<HourlyForecast> fetch(String locationKey) {
+                fetches.computeIfAbsent(locationKey, key -> new AtomicInteger()).incrementAndGet();
+                return CompletableFuture.completedFuture(forecast());
+            }
+        };
+    }
+
+    private SystemSettingsService systemSettingsService() {
+        return new SystemSettingsService(null, null, null, apiConfig) {
+            @Override
+            public boolean isApiEnabled(String apiType) {
+                return true;
+            }
+
+            @Override
+            public int getApiTimeout() {
+                return 5;
+            }
+        };
+    }
+
+    private LocationService locationService(WidgetSnapshotService snapshots) {
+        return new LocationService(null, apiConfig, null, snapshots, metrics) {
+            @Override
+            public Map<String, Object> getLocationInfo() {
+                return new HashMap<>(currentLocation);
+            }
+
+            @Override
+            public boolean isLocationInUse(String locationKey) {
+                return locationsInUse.contains(locationKey);
+            }
+        };
+    }
+
+    private static WidgetSnapshotService widgetSnapshotService() {
+        // No repository: nothing is restored or persisted
+        return new WidgetSnapshotService(null) {
+            @Override
+            public void whenLoaded(String widget, Consumer<List<WidgetSnapshot>> consumer) {
+            }
+
+            @Override
+            public void attach(WidgetCache<Map<String, Object>> cache) {
+            }
+
+            @Override
+            public void save(String widget, String cacheKey, Object payload) {
+            }
+        };
+    }
+}
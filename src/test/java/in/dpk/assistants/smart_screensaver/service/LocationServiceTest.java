@@ -0,0 +1,57 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import in.dpk.assistants.smart_screensaver.cache.WidgetCache;
+import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.entity.WidgetSnapshot;
+import in.dpk.assistants.smart_screensaver.event.LocationChangedEvent;
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationServiceTest {
+
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("Should stop counting a location as in use once its display has been idle")
+    void shouldForgetIdleDevices() throws InterruptedException {
+        ExternalApiConfig apiConfig = new ExternalApiConfig();
+        apiConfig.setDeviceLocationIdleTimeout(Duration.ofMillis(200));
+        LocationService locationService = new LocationService(null, apiConfig, events::add, widgetSnapshotService(),
+                new ScreensaverMetrics(new SimpleMeterRegistry()));
+
+        locationService.setBrowserLocation(12.97, 77.59, "Bengaluru", "Karnataka", "India");
+        assertTrue(locationService.isLocationInUse("12.97,77.59"));
+        assertInstanceOf(LocationChangedEvent.class, events.get(0));
+
+        Thread.sleep(400);
+
+        assertFalse(locationService.isLocationInUse("12.97,77.59"));
+    }
+
+    private static WidgetSnapshotService widgetSnapshotService() {
+        // No repository: nothing is restored or persisted
+        return new WidgetSnapshotService(null) {
+            @Override
+            public void whenLoaded(String widget, Consumer<List<WidgetSnapshot>> consumer) {
+            }
+
+            @Override
+            public void attach(WidgetCache<Map<String, Object>> cache) {
+            }
+
+            @Override
+            public void save(String widget, String cacheKey, Object payload) {
+            }
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.entity.UserPreference;
+import in.dpk.assistants.smart_screensaver.entity.WidgetSnapshot;
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import in.dpk.assistants.smart_screensaver.quote.QuoteCorpus;
+import in.dpk.assistants.smart_screensaver.timeseries.TimeSeriesStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteOfTheDayTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 11);
+    private static final String QUOTABLE = "{\"content\":\"Simplicity is prerequisite for reliability.\","
+            + "\"author\":\"Edsger W. Dijkstra\",\"tags\":[\"Technology\"]}";
+
+    @TempDir
+    Path tempDir;
+
+    // Persisted quote snapshots by cache key (the date)
+    private final Map<String, Object> snapshots = new ConcurrentHashMap<>();
+    private volatile boolean upstreamAvailable = true;
+    private ExternalDataService service;
+
+    @BeforeEach
+    void setUp() {
+        ExternalApiConfig apiConfig = new ExternalApiConfig();
+        apiConfig.setZenquotesApiUrl("http://quotes.test/zenquotes");
+        apiConfig.setGoprogramApiUrl("http://quotes.test/inspiration");
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(upstreamAvailable
+                        ? ClientResponse.create(HttpStatus.OK)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .body(QUOTABLE)
+                                .build()
+                        : ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()))
+                .build();
+        SystemSettingsService settings = new SystemSettingsService(null, null, null, apiConfig) {
+            @Override
+            public boolean isApiEnabled(String apiType) {
+                return true;
+            }
+
+            @Override
+            public String getApiUrl(String apiType) {
+                return "http://quotes.test/random";
+            }
+
+            @Override
+            public int getApiTimeout() {
+                return 5;
+            }
+        };
+        UserService userService = new UserService() {
+            @Override
+            public UserPreference.Snapshot getPreferenceSnapshot() {
+                return null;
+            }
+
+            @Override
+            public ZoneId getUserZone() {
+                return ZONE;
+            }
+        };
+        WidgetSnapshotService widgetSnapshotService = new WidgetSnapshotService(null) {
+            @Override
+            public void whenLoaded(String widget, Consumer<List<WidgetSnapshot>> consumer) {
+            }
+
+            @Override
+            public void save(String widget, String cacheKey, Object payload) {
+                snapshots.put(cacheKey, payload);
+            }
+
+            @Override
+            public void prune(String widget, Predicate<String> cacheKeyFilter) {
+                snapshots.keySet().removeIf(cacheKeyFilter);
+            }
+        };
+        QuoteCorpus quoteCorpus = new QuoteCorpus("", tempDir.resolve("corpus.bin").toString());
+
+        service = new ExternalDataService(webClient, apiConfig, null, settings, null, widgetSnapshotService,
+                userService, quoteCorpus, null, null, new TimeSeriesStore(tempDir.resolve("history").toString(), 16384),
+                new ScreensaverMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    @DisplayName("Should replace today's corpus fallback once a quote API answers again")
+    void shouldReplaceCorpusQuote() {
+        upstreamAvailable = false;
+        Map<String, Object> fallback = service.getQuoteOfTheDay();
+        assertEquals("corpus", fallback.get("source"));
+
+        upstreamAvailable = true;
+        service.prefetchQuoteOfTheDay(ZonedDateTime.now(ZONE));
+
+        Map<String, Object> replaced = service.getQuoteOfTheDay();
+        assertEquals("quotable", replaced.get("source"));
+        assertEquals("Simplicity is prerequisite for reliability.", replaced.get("text"));
+        assertEquals(replaced, snapshots.get(LocalDate.now(ZONE).toString()));
+    }
+
+    @Test
+    @DisplayName("Should prefetch tomorrow's quote in the last minutes before midnight")
+    void shouldPrefetchBeforeMidnight() {
+        service.prefetchQuoteOfTheDay(ZonedDateTime.of(DAY, LocalTime.of(23, 30), ZONE));
+        assertFalse(snapshots.containsKey("2025-06-12"));
+
+        service.prefetchQuoteOfTheDay(ZonedDateTime.of(DAY, LocalTime.of(23, 50), ZONE));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> tomorrow = (Map<String, Object>) snapshots.get("2025-06-12");
+        assertNotNull(tomorrow);
+        assertEquals("2025-06-12", tomorrow.get("date"));
+        assertEquals("quotable", tomorrow.get("source"));
+    }
+
+    @Test
+    @DisplayName("Should drop quotes and snapshots of days that are over")
+    void shouldPruneQuotesOfPastDays() {
+        service.prefetchQuoteOfTheDay(ZonedDateTime.of(DAY, LocalTime.of(23, 50), ZONE));
+        assertTrue(snapshots.containsKey("2025-06-12"));
+
+        service.prefetchQuoteOfTheDay(ZonedDateTime.of(DAY.plusDays(3), LocalTime.of(8, 0), ZONE));
+
+        assertFalse(snapshots.containsKey("2025-06-12"));
+    }
+}
@@ -370,4 +370,67 @@ class UserServiceTest {
                 .anyMatch(r -> r.getName().equals("Persistent Test Routine"));
         assertTrue(foundTestRoutine);
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should hand out preference copies that do not change the cached snapshot")
+    void shouldIsolateCachedPreferenceSnapshot() {
+        userService.updateUserPreference(devicePreference("snapshot-device", "Lobby"));
+
+        UserPreference.Snapshot snapshot = userService.getPreferenceSnapshot("snapshot-device");
+        assertSame(snapshot, userService.getPreferenceSnapshot("snapshot-device"));
+
+        UserPreference editable = userService.getUserPreference("snapshot-device");
+        editable.setDisplayName("Unsaved Name");
+
+        assertEquals("Lobby", userService.getPreferenceSnapshot("snapshot-device").displayName());
+    }
+
+    @Test
+    @DisplayName("Should refresh the cached snapshot when preferences are saved")
+    void shouldInvalidateSnapshotOnUpdate() {
+        userService.updateUserPreference(devicePreference("updated-device", "Kitchen"));
+        UserPreference.Snapshot before = userService.getPreferenceSnapshot("updated-device");
+
+        UserPreference editable = userService.getUserPreference("updated-device");
+        editable.setTimezone("Europe/Berlin");
+        userService.updateUserPreference(editable);
+
+        UserPreference.Snapshot after = userService.getPreferenceSnapshot("updated-device");
+        assertNotSame(before, after);
+        assertEquals("Kitchen", after.displayName());
+        assertEquals("Europe/Berlin", after.timezone());
+    }
+
+    @Test
+    @DisplayName("Should serve the enabled routine set from memory until a routine changes")
+    void shouldVersionEnabledRoutineSet() {
+        UserService.EnabledRoutines first = userService.getEnabledRoutineSet();
+        assertSame(first, userService.getEnabledRoutineSet());
+        assertThrows(UnsupportedOperationException.class, () -> first.routines().clear());
+
+        Routine newRoutine = new Routine();
+        newRoutine.setName("Versioned Routine");
+        newRoutine.setDayCategory(Routine.DayCategory.ANY);
+        newRoutine.setActions(Arrays.asList(Routine.ActionType.SHOW_QUOTE, Routine.ActionType.SHOW_GREETING,
+                Routine.ActionType.SHOW_QUOTE));
+        newRoutine.setEnabled(true);
+        userService.createRoutine(newRoutine);
+
+        UserService.EnabledRoutines second = userService.getEnabledRoutineSet();
+        assertTrue(second.version() > first.version());
+        Routine.Snapshot created = second.routines().stream()
+                .filter(r -> r.name().equals("Versioned Routine"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(List.of(Routine.ActionType.SHOW_GREETING, Routine.ActionType.SHOW_QUOTE),
+                List.copyOf(created.actions()));
+        assertThrows(UnsupportedOperationException.class, () -> created.actions().add(Routine.ActionType.SHOW_DATE));
+    }
+
+    private UserPreference devicePreference(String deviceId, String displayName) {
+        UserPreference preference = new UserPreference();
+        preference.setUserId(deviceId);
+        preference.setDisplayName(displayName);
+        return preference;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package in.dpk.assistants.smart_screensaver.service;
+
+import in.dpk.assistants.smart_screensaver.cache.WidgetCache;
+import in.dpk.assistants.smart_screensaver.entity.WidgetSnapshot;
+import in.dpk.assistants.smart_screensaver.repository.WidgetSnapshotRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each "restart" is a new service and cache on the same database, like a new process after a reboot.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:widgetsnapshotdb"
+})
+class WidgetSnapshotServiceTest {
+
+    private static final String WIDGET = "snapshot-test";
+    private static final String OLD_WIDGET = "snapshot-test-old";
+
+    @Autowired
+    private WidgetSnapshotRepository widgetSnapshotRepository;
+
+    @Test
+    @DisplayName("Should persist loaded values on flush and seed a restarted cache with them")
+    void shouldPersistAndRestoreAfterRestart() throws InterruptedException {
+        long before = System.currentTimeMillis();
+        WidgetSnapshotService service = new WidgetSnapshotService(widgetSnapshotRepository);
+        WidgetCache<Map<String, Object>> cache = new WidgetCache<>(WIDGET, Duration.ofHours(1));
+        service.attach(cache);
+        cache.getOrRefresh("fresh", () -> Map.of("text", "first"));
+        service.flush();
+
+        WidgetSnapshot saved = widgetSnapshotRepository.findById(WidgetSnapshot.idOf(WIDGET, "fresh")).orElseThrow();
+        assertTrue(saved.getFetchedAt() >= before && saved.getFetchedAt() <= System.currentTimeMillis());
+
+        WidgetCache<Map<String, Object>> restarted = restart(WIDGET);
+        assertEquals(Map.of("text", "first"), restarted.get("fresh"));
+    }
+
+    @Test
+    @DisplayName("Should keep the original fetch time, so old snapshots are served stale and revalidated")
+    void shouldKeepOriginalFetchTime() throws InterruptedException {
+        long twoHoursAgo = System.currentTimeMillis() - Duration.ofHours(2).toMillis();
+        widgetSnapshotRepository.save(new WidgetSnapshot(WidgetSnapshot.idOf(OLD_WIDGET, "old"), OLD_WIDGET, "old",
+                "{\"text\":\"yesterday\"}", twoHoursAgo));
+
+        WidgetCache<Map<String, Object>> restarted = restart(OLD_WIDGET);
+
+        assertNull(restarted.get("old"));
+        WidgetCache.Lookup<Map<String, Object>> lookup = restarted.getOrRefresh("old", () -> null);
+        assertTrue(lookup.stale());
+        assertEquals("yesterday", lookup.value().get("text"));
+    }
+
+    private WidgetCache<Map<String, Object>> restart(String widget) throws InterruptedException {
+        WidgetCache<Map<String, Object>> cache = new WidgetCache<>(widget, Duration.ofHours(1), Duration.ofHours(24));
+        new WidgetSnapshotService(widgetSnapshotRepository).attach(cache);
+        // Snapshots are restored in the background
+        for (int i = 0; i < 100 && cache.size() == 0; i++) {
+            Thread.sleep(20);
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,119 @@
+package in.dpk.assistants.smart_screensaver.timeseries;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSeriesStoreTest {
+
+    private static final long START = 1_700_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should read back every sample exactly, across segments and restarts")
+    void shouldRoundTripSamplesAcrossSegmentsAndRestarts() {
+        TimeSeriesStore store = new TimeSeriesStore(tempDir.toString(), 4096);
+        List<TimeSeriesStore.Point> written = new ArrayList<>();
+        Random random = new Random(42);
+        long time = START;
+        double value = 21.5;
+        for (int i = 0; i < 5000; i++) {
+            // Mostly regular minutes with the odd late sample and some values that jump
+            time += 60 + (i % 97 == 0 ? random.nextInt(3000) : 0);
+            value = i % 250 == 0 ? random.nextDouble() * 1000 : Math.round((value + (random.nextInt(3) - 1) * 0.1) * 10) / 10.0;
+            assertTrue(store.append("temperature", "12.97,77.59", time, value));
+            written.add(new TimeSeriesStore.Point(time, value));
+        }
+        store.close();
+
+        TimeSeriesStore reopened = new TimeSeriesStore(tempDir.toString(), 4096);
+        assertTrue(reopened.append("temperature", "12.97,77.59", time + 60, -3.25));
+        written.add(new TimeSeriesStore.Point(time + 60, -3.25));
+
+        assertEquals(written, reopened.query("temperature", "12.97,77.59", 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Should return only samples within the requested range")
+    void shouldQueryRange() {
+        TimeSeriesStore store = new TimeSeriesStore(tempDir.toString(), 1024);
+        for (int i = 0; i < 1000; i++) {
+            store.append("travel-time", "home -> work", START + i * 60L, 20 + i % 7);
+        }
+
+        List<TimeSeriesStore.Point> points = store.query("travel-time", "home -> work", START + 600, START + 1200);
+
+        assertEquals(11, points.size());
+        assertEquals(START + 600, points.get(0).epochSecond());
+        assertEquals(START + 1200, points.get(10).epochSecond());
+        assertTrue(store.query("travel-time", "unknown", 0, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should drop samples older than the last one")
+    void shouldDropOutOfOrderSamples() {
+        TimeSeriesStore store = new TimeSeriesStore(tempDir.toString(), 4096);
+        assertTrue(store.append("api-latency", "weather", START + 60, 120));
+        assertFalse(store.append("api-latency", "weather", START, 80));
+
+        assertEquals(1, store.query("api-latency", "weather", 0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    @DisplayName("Should keep a month of one-minute samples compact")
+    void shouldStoreMonthOfMinuteSamplesCompactly() throws IOException {
+        TimeSeriesStore store = new TimeSeriesStore(tempDir.toString(), 16384);
+        for (int i = 0; i < 30 * 24 * 60; i++) {
+            // A daily temperature curve, rounded like the forecast values
+            double value = Math.round((24 + 6 * Math.sin(i * Math.PI / 720)) * 10) / 10.0;
+            store.append("temperature", "12.97,77.59", START + i * 60L, value);
+        }
+        store.close();
+
+        long bytes;
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            bytes = files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+        assertTrue(bytes < 512 * 1024, "month of samples took " + bytes + " bytes");
+    }
+
+    @Test
+    @DisplayName("Should reject series names that resolve outside the store")
+    void shouldRejectNamesOutsideStore() throws IOException {
+        Path store = Files.createDirectories(tempDir.resolve("history"));
+        TimeSeriesStore timeSeriesStore = new TimeSeriesStore(store.toString(), 16384);
+
+        assertFalse(timeSeriesStore.append("..", "outside", START, 1));
+        assertFalse(timeSeriesStore.append("temperature", "..", START, 1));
+        assertFalse(timeSeriesStore.append(".", "12.97,77.59", START, 1));
+        assertTrue(timeSeriesStore.query("..", "history", START - 60, START + 60).isEmpty());
+        assertFalse(Files.exists(tempDir.resolve("outside")));
+        try (Stream<Path> files = Files.list(store)) {
+            assertEquals(0, files.count());
+        }
+        assertTrue(TimeSeriesStore.isValidName("12.97,77.59"));
+        assertFalse(TimeSeriesStore.isValidName(".."));
+    }
+
+    @Test
+    @DisplayName("Should average samples into buckets")
+    void shouldDownsample() {
+        List<TimeSeriesStore.Point> points = List.of(
+                new TimeSeriesStore.Point(0, 1), new TimeSeriesStore.Point(30, 3), new TimeSeriesStore.Point(60, 10));
+
+        assertEquals(List.of(new TimeSeriesStore.Point(0, 2), new TimeSeriesStore.Point(60, 10)),
+                TimeSeriesStore.downsample(points, 60));
+    }
+}
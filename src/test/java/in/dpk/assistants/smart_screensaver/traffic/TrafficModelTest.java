@@ -0,0 +1,53 @@
+package in.dpk.assistants.smart_screensaver.traffic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficModelTest {
+
+    @Test
+    @DisplayName("Should seed weekday rush hours and free flow elsewhere")
+    void shouldSeedCommuteProfile() {
+        TrafficModel model = TrafficModel.seeded(20f, 8.5f, 0.2f);
+
+        assertEquals(35f, model.estimateMinutes(DayOfWeek.MONDAY, 8, 30), 0.001);
+        assertEquals(40f, model.estimateMinutes(DayOfWeek.FRIDAY, 19, 59), 0.001);
+        assertEquals(20f, model.estimateMinutes(DayOfWeek.MONDAY, 10, 0), 0.001);
+        assertEquals(20f, model.estimateMinutes(DayOfWeek.SUNDAY, 8, 30), 0.001);
+        assertEquals(TrafficModel.Level.HEAVY, model.level(DayOfWeek.MONDAY, 8, 30));
+        assertEquals(TrafficModel.Level.MODERATE, model.level(DayOfWeek.SUNDAY, 8, 30));
+    }
+
+    @Test
+    @DisplayName("Should fold samples into their 15 minute bucket with an EWMA")
+    void shouldUpdateBucketWithEwma() {
+        TrafficModel model = new TrafficModel(20f, 8.5f, 0.5f);
+
+        model.record(DayOfWeek.TUESDAY, 9, 10, 40f);
+        model.record(DayOfWeek.TUESDAY, 9, 14, 40f);
+
+        assertEquals(35f, model.estimateMinutes(DayOfWeek.TUESDAY, 9, 0), 0.001);
+        assertEquals(20f, model.estimateMinutes(DayOfWeek.TUESDAY, 9, 15), 0.001);
+        assertEquals(20f, model.estimateMinutes(DayOfWeek.WEDNESDAY, 9, 0), 0.001);
+        assertEquals(2, model.getSamples());
+    }
+
+    @Test
+    @DisplayName("Should ignore invalid samples and restore saved tables")
+    void shouldRestoreSavedTable() {
+        TrafficModel model = new TrafficModel(20f, 8.5f, 0.5f);
+        model.record(DayOfWeek.MONDAY, 0, 0, -5f);
+        model.record(DayOfWeek.MONDAY, 0, 0, Float.NaN);
+        assertEquals(0, model.getSamples());
+
+        float[] saved = TrafficModel.seeded(10f, 8.5f, 0.5f).toArray();
+        model.restore(saved, 7);
+
+        assertEquals(17.5f, model.estimateMinutes(DayOfWeek.MONDAY, 7, 0), 0.001);
+        assertEquals(7, model.getSamples());
+    }
+}
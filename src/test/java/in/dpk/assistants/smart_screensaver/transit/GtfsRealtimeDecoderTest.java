@@ -0,0 +1,140 @@
+package in.dpk.assistants.smart_screensaver.transit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GtfsRealtimeDecoderTest {
+
+    @Test
+    @DisplayName("Should decode trip updates and skip other entities")
+    void shouldDecodeTripUpdates() throws IOException {
+        byte[] feed = feed(
+                entity(tripUpdate(trip("T1", 0), 1700000000L, stopTimeUpdate("S1", 120))),
+                entity(field(4, message(string(1, "vehicle payload")))),
+                entity(tripUpdate(trip("T2", 3), 1700000000L)));
+        List<GtfsRealtimeDecoder.TripUpdate> updates = new ArrayList<>();
+
+        long timestamp = GtfsRealtimeDecoder.decode(new ByteArrayInputStream(feed), updates::add);
+
+        assertEquals(1700000100L, timestamp);
+        assertEquals(2, updates.size());
+        assertEquals("T1", updates.get(0).tripId());
+        assertEquals("S1", updates.get(0).stopTimeUpdates().get(0).stopId());
+        assertEquals(120, updates.get(0).stopTimeUpdates().get(0).delay());
+        assertTrue(updates.get(1).canceled());
+    }
+
+    @Test
+    @DisplayName("Should apply updates to the delay table per trip")
+    void shouldApplyDeltasToDelayTable() throws IOException {
+        TripDelayTable table = new TripDelayTable();
+        GtfsRealtimeDecoder.decode(new ByteArrayInputStream(feed(
+                entity(tripUpdate(trip("T1", 0), 100L, stopTimeUpdate("S1", 120))),
+                entity(tripUpdate(trip("T2", 3), 100L)))), update -> table.apply(update, 1000L));
+
+        // A later poll only carries T1, with an older update that must not win
+        GtfsRealtimeDecoder.decode(new ByteArrayInputStream(feed(
+                entity(tripUpdate(trip("T1", 0), 50L, stopTimeUpdate("S1", 600))))), update -> table.apply(update, 2000L));
+
+        assertEquals(120, table.delaySeconds("T1", "S1", 1, 0));
+        assertEquals(120, table.delaySeconds("T1", "S2", 2, 0));
+        assertTrue(table.isCanceled("T2"));
+        assertNull(table.delaySeconds("T3", "S1", 1, 0));
+        assertEquals(1, table.expire(1500L));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    @DisplayName("Should propagate the delay of the latest predicted stop before the departure")
+    void shouldPropagateLatestUpstreamDelay() throws IOException {
+        TripDelayTable table = new TripDelayTable();
+        GtfsRealtimeDecoder.decode(new ByteArrayInputStream(feed(
+                entity(tripUpdate(trip("T1", 0), 100L,
+                        stopTimeUpdate(5, "S5", 60), stopTimeUpdate(10, "S10", 600))))), update -> table.apply(update, 1000L));
+
+        assertEquals(600, table.delaySeconds("T1", "S12", 12, 0));
+        assertEquals(60, table.delaySeconds("T1", "S7", 7, 0));
+        assertEquals(600, table.delaySeconds("T1", "S10", 10, 0));
+        assertNull(table.delaySeconds("T1", "S3", 3, 0));
+        assertNull(table.delaySeconds("T1", "S12", -1, 0));
+    }
+
+    private static byte[] feed(byte[]... entities) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(field(1, message(string(1, "2.0"), varint(3, 1700000100L))));
+        for (byte[] entity : entities) {
+            out.write(entity);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] entity(byte[] payload) throws IOException {
+        return field(2, message(string(1, "entity"), payload));
+    }
+
+    private static byte[] tripUpdate(byte[] trip, long timestamp, byte[]... stopTimeUpdates) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(trip);
+        for (byte[] stopTimeUpdate : stopTimeUpdates) {
+            out.write(stopTimeUpdate);
+        }
+        out.write(varint(4, timestamp));
+        return field(3, out.toByteArray());
+    }
+
+    private static byte[] trip(String tripId, int scheduleRelationship) throws IOException {
+        return field(1, message(string(1, tripId), varint(4, scheduleRelationship)));
+    }
+
+    private static byte[] stopTimeUpdate(String stopId, int delay) throws IOException {
+        return stopTimeUpdate(1, stopId, delay);
+    }
+
+    private static byte[] stopTimeUpdate(int stopSequence, String stopId, int delay) throws IOException {
+        return field(2, message(varint(1, stopSequence), field(3, varint(1, delay)), string(4, stopId)));
+    }
+
+    private static byte[] message(byte[]... fields) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] field : fields) {
+            out.write(field);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] field(int number, byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, (number << 3) | 2);
+        writeVarint(out, payload.length);
+        out.write(payload);
+        return out.toByteArray();
+    }
+
+    private static byte[] string(int number, String value) throws IOException {
+        return field(number, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] varint(int number, long value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, number << 3);
+        writeVarint(out, value);
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,144 @@
+package in.dpk.assistants.smart_screensaver.transit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StopTimeIndexTest {
+
+    // 2024-03-15 is a Friday, 2024-03-16 a Saturday
+    private static final LocalDate FRIDAY = LocalDate.of(2024, 3, 15);
+
+    @TempDir
+    Path feedDir;
+
+    private Path indexFile;
+    private StopTimeIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        write("calendar.txt",
+                "service_id,monday,tuesday,wednesday,thursday,friday,saturday,sunday,start_date,end_date",
+                "WK,1,1,1,1,1,0,0,20240101,20241231",
+                "SA,0,0,0,0,0,1,0,20240101,20241231");
+        write("calendar_dates.txt",
+                "service_id,date,exception_type",
+                "SA,20240315,1");
+        write("routes.txt",
+                "route_id,route_short_name,route_long_name",
+                "R1,401A,\"MG Road, Koramangala\"");
+        write("trips.txt",
+                "route_id,service_id,trip_id,trip_headsign",
+                "R1,WK,T1,Koramangala",
+                "R1,WK,T2,Koramangala",
+                "R1,SA,T3,Airport",
+                "R1,WK,T4,Night Depot");
+        write("stops.txt",
+                "stop_id,stop_name",
+                "S1,MG Road",
+                "S2,Koramangala");
+        write("stop_times.txt",
+                "trip_id,arrival_time,departure_time,stop_id,stop_sequence",
+                "T2,09:30:00,09:30:00,S1,1",
+                "T1,08:00:00,08:05:00,S1,1",
+                "T1,08:20:00,08:20:00,S2,2",
+                "T3,10:00:00,10:00:00,S1,1",
+                "T4,24:30:00,24:30:00,S1,1",
+                "T2,,,S2,2");
+
+        indexFile = feedDir.resolve("index.bin");
+        GtfsIngestor.build(feedDir, indexFile);
+        index = StopTimeIndex.open(indexFile);
+    }
+
+    @Test
+    @DisplayName("Should return the next departures from a stop in order")
+    void shouldFindNextDepartures() {
+        List<StopTimeIndex.Departure> departures = index.nextDepartures("S1", FRIDAY, 8 * 3600, 2);
+
+        assertEquals(2, departures.size());
+        assertEquals("T1", departures.get(0).tripId());
+        assertEquals("401A", departures.get(0).route());
+        assertEquals(5 * 60, departures.get(0).secondsFromNow());
+        assertEquals(1, departures.get(0).stopSequence());
+        assertEquals("T2", departures.get(1).tripId());
+        assertEquals("MG Road", index.getStopName("S1"));
+    }
+
+    @Test
+    @DisplayName("Should honour service days and calendar date exceptions")
+    void shouldFilterByServiceCalendar() {
+        // Saturday service T3 is added on this Friday by calendar_dates.txt
+        List<StopTimeIndex.Departure> friday = index.nextDepartures("S1", FRIDAY, 9 * 3600 + 45 * 60, 5);
+        assertEquals("T3", friday.get(0).tripId());
+
+        List<StopTimeIndex.Departure> sunday = index.nextDepartures("S1", FRIDAY.plusDays(2), 0, 5);
+        assertTrue(sunday.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should include previous day trips running past midnight")
+    void shouldIncludeTripsPastMidnight() {
+        List<StopTimeIndex.Departure> departures = index.nextDepartures("S1", FRIDAY, 0, 1);
+
+        assertEquals("T4", departures.get(0).tripId());
+        assertEquals(FRIDAY.minusDays(1), departures.get(0).serviceDate());
+        assertEquals(30 * 60, departures.get(0).secondsFromNow());
+    }
+
+    @Test
+    @DisplayName("Should skip stop times without a time and unknown stops")
+    void shouldSkipUntimedStops() {
+        assertEquals(5, index.getStopTimeCount());
+        assertTrue(index.nextDepartures("S9", FRIDAY, 0, 3).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should treat the index as stale when any ingested file or the feed path changes")
+    void shouldDetectChangedFeed(@TempDir Path otherFeed) throws IOException {
+        assertTrue(GtfsIngestor.isCurrent(feedDir, indexFile));
+
+        Path trips = feedDir.resolve("trips.txt");
+        Files.setLastModifiedTime(trips, FileTime.fromMillis(Files.getLastModifiedTime(trips).toMillis() + 60_000));
+        assertFalse(GtfsIngestor.isCurrent(feedDir, indexFile));
+
+        GtfsIngestor.build(feedDir, indexFile);
+        assertTrue(GtfsIngestor.isCurrent(feedDir, indexFile));
+        assertFalse(GtfsIngestor.isCurrent(otherFeed, indexFile));
+
+        Files.delete(feedDir.resolve("calendar_dates.txt"));
+        assertFalse(GtfsIngestor.isCurrent(feedDir, indexFile));
+    }
+
+    @Test
+    @DisplayName("Should reject an index whose row count does not fit the file")
+    void shouldRejectOversizedRowCount() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(64)
+                .putInt(StopTimeIndex.MAGIC)
+                .putInt(StopTimeIndex.VERSION)
+                .putInt(0)
+                .putLong(0)
+                // Stops, rows, trips, services, routes, added and removed dates, then the single stop offset
+                .putInt(0).putInt(300_000_000).putInt(0).putInt(0).putInt(0).putInt(0).putInt(0)
+                .putInt(0);
+        Path corrupt = Files.write(feedDir.resolve("corrupt.bin"), Arrays.copyOf(header.array(), header.position()));
+
+        assertThrows(IOException.class, () -> StopTimeIndex.open(corrupt));
+    }
+
+    private void write(String name, String... lines) throws IOException {
+        Files.write(feedDir.resolve(name), List.of(lines));
+    }
+}
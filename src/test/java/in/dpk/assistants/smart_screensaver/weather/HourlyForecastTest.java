@@ -0,0 +1,86 @@
+package in.dpk.assistants.smart_screensaver.weather;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HourlyForecastTest {
+
+    private static final long START = 1_760_000_400L;
+
+    private HourlyForecast forecast() {
+        return new HourlyForecast(START,
+                new float[] {20.0f, 22.0f, 21.0f},
+                new short[] {60, 70, 80},
+                new short[] {0, 3, 61},
+                System.currentTimeMillis());
+    }
+
+    @Test
+    @DisplayName("Should interpolate temperature and humidity between hours")
+    void shouldInterpolateBetweenHours() {
+        HourlyForecast forecast = forecast();
+        long halfPast = START + HourlyForecast.STEP_SECONDS / 2;
+
+        assertEquals(21.0f, forecast.temperatureAt(halfPast), 0.001f);
+        assertEquals(65, forecast.humidityAt(halfPast));
+        assertEquals(22.0f, forecast.temperatureAt(START + HourlyForecast.STEP_SECONDS), 0.001f);
+    }
+
+    @Test
+    @DisplayName("Should pick nearest hour for weather code")
+    void shouldPickNearestHourForWeatherCode() {
+        HourlyForecast forecast = forecast();
+
+        assertEquals(0, forecast.weatherCodeAt(START + 600));
+        assertEquals(3, forecast.weatherCodeAt(START + 3000));
+    }
+
+    @Test
+    @DisplayName("Should report coverage of the forecast window")
+    void shouldReportCoverage() {
+        HourlyForecast forecast = forecast();
+
+        assertTrue(forecast.covers(START));
+        assertTrue(forecast.covers(START + 2 * HourlyForecast.STEP_SECONDS));
+        assertFalse(forecast.covers(START - 1));
+        assertFalse(forecast.covers(START + 2 * HourlyForecast.STEP_SECONDS + 1));
+    }
+
+    @Test
+    @DisplayName("Should parse Open-Meteo hourly unixtime response")
+    void shouldParseOpenMeteoResponse() throws Exception {
+        String json = "{\"hourly\":{\"time\":[" + START + "," + (START + 3600) + "],"
+                + "\"temperature_2m\":[18.5,null],"
+                + "\"relative_humidity_2m\":[55,57],"
+                + "\"weather_code\":[2,3]}}";
+        JsonNode node = new ObjectMapper().readTree(json);
+
+        HourlyForecast forecast = HourlyForecast.fromOpenMeteo(node, 0L);
+
+        assertEquals(2, forecast.size());
+        assertEquals(START, forecast.getStartEpochSecond());
+        // Missing values fall back to the neighbouring hour instead of producing NaN
+        assertEquals(18.5f, forecast.temperatureAt(START + 1800), 0.001f);
+    }
+
+    @Test
+    @DisplayName("Should reject empty, missing or mismatched hourly series")
+    void shouldRejectMalformedSeries() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String[] responses = {
+                "{\"hourly\":{\"time\":[],\"temperature_2m\":[],\"relative_humidity_2m\":[],\"weather_code\":[]}}",
+                "{\"hourly\":{\"time\":[" + START + "],\"relative_humidity_2m\":[55],\"weather_code\":[2]}}",
+                "{\"hourly\":{\"time\":[" + START + "],\"temperature_2m\":[18.5,19.0],"
+                        + "\"relative_humidity_2m\":[55],\"weather_code\":[2]}}",
+                "{\"error\":true}"
+        };
+        for (String response : responses) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> HourlyForecast.fromOpenMeteo(objectMapper.readTree(response), 0L), response);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package in.dpk.assistants.smart_screensaver.weather;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemperatureFormatterTest {
+
+    @Test
+    @DisplayName("Should round to tenths within the pre-rendered range")
+    void shouldFormatPreRenderedRange() {
+        assertEquals("21.5°C", TemperatureFormatter.format(21.46));
+        assertEquals("0.0°C", TemperatureFormatter.format(-0.04));
+        assertEquals("-0.1°C", TemperatureFormatter.format(-0.06));
+        assertEquals("-50.0°C", TemperatureFormatter.format(-50));
+        assertEquals("60.0°C", TemperatureFormatter.format(60));
+    }
+
+    @Test
+    @DisplayName("Should format values outside the range on demand")
+    void shouldFormatOutOfRange() {
+        assertEquals(String.format("%.1f°C", 60.2), TemperatureFormatter.format(60.2));
+        assertEquals(String.format("%.1f°C", -73.0), TemperatureFormatter.format(-73.0));
+    }
+}
@@ -0,0 +1,130 @@
+package in.dpk.assistants.smart_screensaver.weather;
+
+import in.dpk.assistants.smart_screensaver.config.ExternalApiConfig;
+import in.dpk.assistants.smart_screensaver.metrics.ScreensaverMetrics;
+import in.dpk.assistants.smart_screensaver.service.SystemSettingsService;
+import in.dpk.assistants.smart_screensaver.timeseries.TimeSeriesStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherBatchClientTest {
+
+    private static final long START = 1_760_000_400L;
+    private static final String BENGALURU = "12.97,77.59";
+    private static final String DELHI = "28.61,77.21";
+    private static final String MUMBAI = "19.08,72.88";
+
+    @TempDir
+    Path tempDir;
+
+    private final ExternalApiConfig apiConfig = new ExternalApiConfig();
+    private final List<String> requestedUrls = new CopyOnWriteArrayList<>();
+    private WeatherBatchClient client;
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should send keys of one window as a multi-coordinate request and split the array response")
+    void shouldBatchKeysAndSplitResponse() throws Exception {
+        client = client(url -> respond("[" + forecast(20) + "," + forecast(30) + "," + forecast(25) + "]"));
+
+        CompletableFuture<HourlyForecast> bengaluru = client.fetch(BENGALURU);
+        CompletableFuture<HourlyForecast> delhi = client.fetch(DELHI);
+        CompletableFuture<HourlyForecast> mumbai = client.fetch(MUMBAI);
+
+        assertEquals(20.0f, bengaluru.get(5, TimeUnit.SECONDS).temperatureAt(START), 0.001f);
+        assertEquals(30.0f, delhi.get(5, TimeUnit.SECONDS).temperatureAt(START), 0.001f);
+        assertEquals(25.0f, mumbai.get(5, TimeUnit.SECONDS).temperatureAt(START), 0.001f);
+        assertEquals(1, requestedUrls.size());
+        assertTrue(requestedUrls.get(0).contains("latitude=12.97,28.61,19.08&longitude=77.59,77.21,72.88"),
+                requestedUrls.get(0));
+    }
+
+    @Test
+    @DisplayName("Should fail only the locations whose array element is missing or malformed")
+    void shouldFailOnlyMissingOrMalformedElements() throws Exception {
+        client = client(url -> respond("[" + forecast(20) + ",{\"error\":true}]"));
+
+        CompletableFuture<HourlyForecast> bengaluru = client.fetch(BENGALURU);
+        CompletableFuture<HourlyForecast> delhi = client.fetch(DELHI);
+        CompletableFuture<HourlyForecast> mumbai = client.fetch(MUMBAI);
+
+        assertEquals(20.0f, bengaluru.get(5, TimeUnit.SECONDS).temperatureAt(START), 0.001f);
+        assertThrows(ExecutionException.class, () -> delhi.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> mumbai.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should not hold up a chunk behind a slow one")
+    void shouldNotQueueChunksBehindSlowOne() throws Exception {
+        apiConfig.setWeatherBatchSize(1);
+        client = client(url -> url.contains("latitude=12.97&")
+                ? respond(forecast(20)).delayElement(Duration.ofSeconds(3))
+                : respond(forecast(30)));
+
+        CompletableFuture<HourlyForecast> slow = client.fetch(BENGALURU);
+        CompletableFuture<HourlyForecast> fast = client.fetch(DELHI);
+
+        assertEquals(30.0f, fast.get(1, TimeUnit.SECONDS).temperatureAt(START), 0.001f);
+        assertFalse(slow.isDone());
+        assertEquals(20.0f, slow.get(5, TimeUnit.SECONDS).temperatureAt(START), 0.001f);
+    }
+
+    private WeatherBatchClient client(Function<String, Mono<ClientResponse>> upstream) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    String url = request.url().toString();
+                    requestedUrls.add(url);
+                    return upstream.apply(url);
+                })
+                .build();
+        SystemSettingsService settings = new SystemSettingsService(null, null, null, apiConfig) {
+            @Override
+            public String getApiUrl(String apiType) {
+                return "http://weather.test/v1/forecast";
+            }
+
+            @Override
+            public int getApiTimeout() {
+                return 10;
+            }
+        };
+        return new WeatherBatchClient(webClient, settings, apiConfig,
+                new TimeSeriesStore(tempDir.toString(), 16384), new ScreensaverMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static Mono<ClientResponse> respond(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+
+    private static String forecast(int temperature) {
+        return "{\"hourly\":{\"time\":[" + START + "],\"temperature_2m\":[" + temperature
+                + "],\"relative_humidity_2m\":[50],\"weather_code\":[0]}}";
+    }
+}
@@ -0,0 +1,30 @@
+package in.dpk.assistants.smart_screensaver.weather;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherCodesTest {
+
+    @Test
+    @DisplayName("Should map WMO code ranges to condition labels")
+    void shouldLabelCodeRanges() {
+        assertEquals("Clear Sky", WeatherCodes.label(0, Locale.ENGLISH));
+        assertEquals("Partly Cloudy", WeatherCodes.label(2, Locale.ENGLISH));
+        assertEquals("Foggy", WeatherCodes.label(48, Locale.ENGLISH));
+        assertEquals("Rain", WeatherCodes.label(63, Locale.ENGLISH));
+        assertEquals("Thunderstorm", WeatherCodes.label(95, Locale.ENGLISH));
+        assertEquals("Thunderstorm with Hail", WeatherCodes.label(99, Locale.ENGLISH));
+    }
+
+    @Test
+    @DisplayName("Should report unassigned and out-of-range codes as unknown")
+    void shouldLabelUnknownCodes() {
+        assertEquals("Unknown", WeatherCodes.label(50, Locale.ENGLISH));
+        assertEquals("Unknown", WeatherCodes.label(100, Locale.ENGLISH));
+        assertEquals("Unknown", WeatherCodes.label(-1, Locale.ENGLISH));
+    }
+}